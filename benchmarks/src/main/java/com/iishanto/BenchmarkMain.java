@@ -0,0 +1,25 @@
+package com.iishanto;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler (allocation rate, GC counts) and writes the results as JSON.
+ * Takes the usual JMH arguments, e.g. {@code java -jar target/benchmarks.jar HtmlEntity -rff entities.json}.
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(cli)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(cli.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(cli.getResult().orElse("jmh-result.json"))
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,59 @@
+package com.iishanto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * English, Bengali and Chinese sample text for the benchmarks, repeated to the requested size.
+ */
+final class Corpus {
+    private Corpus() {
+    }
+
+    /**
+     * Sentence-ending characters of each corpus language, as passed to the TTS chunker
+     */
+    static String sentenceEnders(String lang) {
+        return switch (lang) {
+            case "bn" -> "।!?";
+            case "zh" -> "。！？";
+            default -> ".!?";
+        };
+    }
+
+    /**
+     * Newline-separated paragraphs of the given language, about {@code size} characters long
+     */
+    static String text(String lang, int size) {
+        String sample = load(lang);
+        StringBuilder sb = new StringBuilder(size + sample.length());
+        while (sb.length() < size) {
+            sb.append(sample);
+        }
+        sb.setLength(size);
+        // End on a whole line
+        int lastNewline = sb.lastIndexOf("\n");
+        if (lastNewline > 0) sb.setLength(lastNewline);
+        return sb.toString();
+    }
+
+    static String[] words(String lang) {
+        return load(lang).split("\\s+");
+    }
+
+    static String word(String[] words, Random random) {
+        return words[random.nextInt(words.length)];
+    }
+
+    private static String load(String lang) {
+        try (InputStream in = Corpus.class.getClassLoader().getResourceAsStream("corpus/" + lang + ".txt")) {
+            if (in == null) throw new IllegalArgumentException("No corpus for " + lang);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
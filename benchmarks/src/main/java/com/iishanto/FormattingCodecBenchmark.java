@@ -0,0 +1,60 @@
+package com.iishanto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding a document's lines before a translateHtml request and decoding them afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormattingCodecBenchmark {
+    @Param({"en", "bn", "zh"})
+    public String lang;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private String[] lines;
+    private String[] encoded;
+
+    @Setup
+    public void setup() {
+        lines = Corpus.text(lang, size).split("\n", -1);
+        encoded = new String[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            // Translations come back with the same placeholders
+            encoded[i] = FormattingCodec.encode(lines[i]);
+        }
+    }
+
+    @Benchmark
+    public void encode(Blackhole bh) {
+        for (String line : lines) {
+            bh.consume(FormattingCodec.encode(line));
+        }
+    }
+
+    @Benchmark
+    public void decode(Blackhole bh) {
+        for (String line : encoded) {
+            bh.consume(FormattingCodec.decode(line));
+        }
+    }
+}
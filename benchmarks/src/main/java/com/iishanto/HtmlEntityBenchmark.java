@@ -0,0 +1,105 @@
+package com.iishanto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link HtmlEntityDecoder} against the replace/indexOf decoder it replaced, on text with and without entities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmlEntityBenchmark {
+    private static final String[] ENTITIES = {"&amp;", "&quot;", "&#39;", "&lt;", "&gt;", "&nbsp;", "&#8220;", "&#x1F600;", "&mdash;", "&hellip;"};
+
+    @Param({"en", "bn", "zh"})
+    public String lang;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    /**
+     * Share of words followed by an entity, in percent
+     */
+    @Param({"0", "5", "50"})
+    public int entityPercent;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        String[] words = Corpus.words(lang);
+        StringBuilder sb = new StringBuilder(size + 16);
+        while (sb.length() < size) {
+            sb.append(Corpus.word(words, random));
+            if (random.nextInt(100) < entityPercent) sb.append(ENTITIES[random.nextInt(ENTITIES.length)]);
+            sb.append(' ');
+        }
+        text = sb.toString();
+    }
+
+    @Benchmark
+    public String singlePass() {
+        return HtmlEntityDecoder.decode(text);
+    }
+
+    @Benchmark
+    public String legacy() {
+        return legacyDecode(text);
+    }
+
+    /**
+     * The decoder Tools used before HtmlEntityDecoder, kept as the baseline
+     */
+    static String legacyDecode(String text) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        text = text.replace("&quot;", "\"");
+        text = text.replace("&apos;", "'");
+        text = text.replace("&lt;", "<");
+        text = text.replace("&gt;", ">");
+        text = text.replace("&amp;", "&");
+        text = text.replace("&#39;", "'");
+        text = text.replace("&#34;", "\"");
+        text = text.replace("&nbsp;", " ");
+        while (text.contains("&#")) {
+            int start = text.indexOf("&#");
+            int end = text.indexOf(";", start);
+            if (end > start) {
+                try {
+                    String numStr = text.substring(start + 2, end);
+                    int charCode;
+                    if (numStr.startsWith("x") || numStr.startsWith("X")) {
+                        charCode = Integer.parseInt(numStr.substring(1), 16);
+                    } else {
+                        charCode = Integer.parseInt(numStr);
+                    }
+                    char decodedChar = (char) charCode;
+                    text = text.substring(0, start) + decodedChar + text.substring(end + 1);
+                } catch (NumberFormatException e) {
+                    break;
+                }
+            } else {
+                break;
+            }
+        }
+        return text;
+    }
+}
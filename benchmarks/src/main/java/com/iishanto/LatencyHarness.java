@@ -0,0 +1,153 @@
+package com.iishanto;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end latency of the translation pipeline against {@link MockTranslateServer}, so results do not
+ * depend on the network or Google's rate limits. Measures the clipboard path (regNewText and callEvent up to
+ * TranslationCompleted on the event bus), concurrent cold and cached translations, and TTS fetches.
+ * <p>
+ * {@code java -cp target/benchmarks.jar com.iishanto.LatencyHarness [requests] [concurrency] [latencyMs] [jitterMs] [errorPercent]}
+ */
+public class LatencyHarness {
+    private static final long TIMEOUT_SECONDS = 60;
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        long latency = args.length > 2 ? Long.parseLong(args[2]) : 80;
+        long jitter = args.length > 3 ? Long.parseLong(args[3]) : 40;
+        int errorPercent = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+
+        try (MockTranslateServer server = new MockTranslateServer(0, latency, jitter, errorPercent, 40)) {
+            // Must be set before the first use of Tools or the client, which read them once
+            System.setProperty("iidict.api.baseUrl", server.baseUrl());
+            System.setProperty("iidict.web.baseUrl", server.baseUrl());
+            System.setProperty("iidict.dataDir", Files.createTempDirectory("iidict-latency").toString());
+            System.out.println("Mock server on " + server.baseUrl() + ": latency " + latency + " ms, jitter "
+                    + jitter + " ms, errors " + errorPercent + "%, " + requests + " requests, concurrency " + concurrency);
+
+            Tools tools = Tools.getConfig();
+            tools.setSourceLanguage("en");
+            tools.setTargetLanguage("bn");
+            List<String> sentences = sentences(requests);
+
+            clipboard(tools, sentences.subList(0, Math.min(50, sentences.size())));
+            List<String> rest = sentences.subList(Math.min(50, sentences.size()), sentences.size());
+            concurrent("translate (cold)", tools, rest, concurrency);
+            concurrent("translate (cached)", tools, rest, concurrency);
+            tts(tools, sentences.subList(0, Math.min(20, sentences.size())));
+
+            System.out.println("Mock server handled " + server.requests.sum() + " requests, "
+                    + server.failures.sum() + " injected failures");
+            // Where the time went inside the app
+            System.out.print(Metrics.getInstance().report());
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Distinct sentences so that every cold request misses the cache and goes to the server
+     */
+    private static List<String> sentences(int count) {
+        String[] lines = Corpus.text("en", 20000).split("\n");
+        List<String> sentences = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sentences.add(lines[i % lines.length].strip() + " (" + i + ")");
+        }
+        return sentences;
+    }
+
+    /**
+     * One copy at a time, timed from registering the text to its TranslationCompleted event
+     */
+    private static void clipboard(Tools tools, List<String> sentences) throws Exception {
+        Map<String, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+        long[] nanos = new long[sentences.size()];
+        int errors = 0;
+        long start = System.nanoTime();
+        AutoCloseable subscription = EventBus.getInstance().subscribe(TranslationEvent.TranslationCompleted.class, completed -> {
+            CompletableFuture<String> future = pending.remove(completed.source());
+            if (future != null) future.complete(completed.translation());
+        });
+        try {
+            for (int i = 0; i < sentences.size(); i++) {
+                String text = sentences.get(i);
+                CompletableFuture<String> done = new CompletableFuture<>();
+                pending.put(text, done);
+                long t0 = System.nanoTime();
+                tools.regNewText(text);
+                tools.callEvent("new_text");
+                if (done.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).startsWith("Translation error")) errors++;
+                nanos[i] = System.nanoTime() - t0;
+            }
+        } finally {
+            subscription.close();
+        }
+        report("clipboard -> completed", nanos, errors, System.nanoTime() - start);
+    }
+
+    private static void concurrent(String name, Tools tools, List<String> sentences, int concurrency) throws Exception {
+        long[] nanos = new long[sentences.size()];
+        LongAdder errors = new LongAdder();
+        AtomicInteger next = new AtomicInteger();
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newFixedThreadPool(concurrency)) {
+            for (int w = 0; w < concurrency; w++) {
+                workers.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < sentences.size(); i = next.getAndIncrement()) {
+                        long t0 = System.nanoTime();
+                        String text = tools.meaningAsync(sentences.get(i)).join();
+                        nanos[i] = System.nanoTime() - t0;
+                        if (text.startsWith("Translation error")) errors.increment();
+                    }
+                    return null;
+                });
+            }
+        }
+        report(name, nanos, errors.intValue(), System.nanoTime() - start);
+    }
+
+    private static void tts(Tools tools, List<String> sentences) throws Exception {
+        // Same client, headers and timeouts as AudioPlayer
+        HttpTransport transport = HttpTransport.getInstance();
+        long[] nanos = new long[sentences.size()];
+        int errors = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < sentences.size(); i++) {
+            long t0 = System.nanoTime();
+            HttpRequest request = transport.request(tools.getTtsUrl(sentences.get(i), "en")).GET().build();
+            HttpResponse<byte[]> response = transport.client().send(request, HttpResponse.BodyHandlers.ofByteArray());
+            nanos[i] = System.nanoTime() - t0;
+            if (response.statusCode() != 200) errors++;
+        }
+        report("tts fetch", nanos, errors, System.nanoTime() - start);
+    }
+
+    private static void report(String name, long[] nanos, int errors, long elapsedNanos) {
+        if (nanos.length == 0) return;
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-22s n=%-5d p50=%7.1f ms  p90=%7.1f ms  p99=%7.1f ms  max=%7.1f ms  %8.1f req/s  errors=%d%n",
+                name, sorted.length, percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                sorted[sorted.length - 1] / 1e6, sorted.length / (elapsedNanos / 1e9), errors);
+    }
+
+    private static double percentile(long[] sorted, int percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,155 @@
+package com.iishanto;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for the Google endpoints the app talks to: the element.js API key bootstrap,
+ * translateHtml (echoing each paragraph back as its "translation") and translate_tts (silent MP3).
+ * Every response can be delayed by a base latency plus random jitter, and a share of requests can fail.
+ * <p>
+ * Point the app at it with {@code -Diidict.api.baseUrl=http://localhost:PORT -Diidict.web.baseUrl=http://localhost:PORT}.
+ */
+public final class MockTranslateServer implements AutoCloseable {
+    static final String API_KEY = "mock-api-key";
+    // One MPEG-1 Layer III frame, 128 kbps, 44.1 kHz, mono; all-zero side info decodes as about 26 ms of silence
+    private static final int MP3_FRAME_BYTES = 417;
+
+    static {
+        // Headers and body go out as separate writes; with Nagle's algorithm the body waits for a delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final int errorPercent;
+    private final int mp3Frames;
+    final LongAdder requests = new LongAdder();
+    final LongAdder failures = new LongAdder();
+
+    public MockTranslateServer(int port, long latencyMillis, long jitterMillis, int errorPercent, int mp3Frames) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.errorPercent = errorPercent;
+        this.mp3Frames = mp3Frames;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        // Latency is simulated by sleeping, which costs nothing on virtual threads
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/translate_a/element.js", this::elementJs);
+        server.createContext("/element_main.js", this::elementMain);
+        server.createContext("/v1/translateHtml", this::translateHtml);
+        server.createContext("/translate_tts", this::tts);
+        server.start();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 80;
+        long jitter = args.length > 2 ? Long.parseLong(args[2]) : 40;
+        int errors = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        MockTranslateServer server = new MockTranslateServer(port, latency, jitter, errors, 40);
+        System.out.println("Mock translate server on " + server.baseUrl()
+                + " (latency " + latency + " ms, jitter " + jitter + " ms, errors " + errors + "%)");
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void elementJs(HttpExchange exchange) throws IOException {
+        if (!begin(exchange)) return;
+        // The real bootstrap hex-escapes the script URL
+        String url = (baseUrl() + "/element_main.js").replace(":", "\\x3a").replace("/", "\\/");
+        respond(exchange, 200, "text/javascript", ("c._loadJs('" + url + "');").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void elementMain(HttpExchange exchange) throws IOException {
+        if (!begin(exchange)) return;
+        String js = "var h={\"X-goog-api-key\":\"" + API_KEY + "\"};";
+        respond(exchange, 200, "text/javascript", js.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Request body is [[[paragraphs...], sl, tl], "wt_lib"]; the response is [[translations...], [detected languages...]]
+     */
+    private void translateHtml(HttpExchange exchange) throws IOException {
+        if (!begin(exchange)) return;
+        if (!API_KEY.equals(exchange.getRequestHeaders().getFirst("X-Goog-Api-Key"))) {
+            respond(exchange, 403, "application/json", "{\"error\":\"API key not valid\"}".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        JsonArray request = JsonParser.parseReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)).getAsJsonArray();
+        JsonArray query = request.get(0).getAsJsonArray();
+        List<String> translations = new ArrayList<>();
+        List<String> detected = new ArrayList<>();
+        for (JsonElement paragraph : query.get(0).getAsJsonArray()) {
+            translations.add(paragraph.getAsString());
+            detected.add(query.get(1).getAsString());
+        }
+        byte[] body = new Gson().toJson(List.of(translations, detected)).getBytes(StandardCharsets.UTF_8);
+        respond(exchange, 200, "application/json+protobuf", body);
+    }
+
+    private void tts(HttpExchange exchange) throws IOException {
+        if (!begin(exchange)) return;
+        byte[] mp3 = new byte[MP3_FRAME_BYTES * mp3Frames];
+        for (int i = 0; i < mp3.length; i += MP3_FRAME_BYTES) {
+            mp3[i] = (byte) 0xFF;
+            mp3[i + 1] = (byte) 0xFB;
+            mp3[i + 2] = (byte) 0x90;
+            mp3[i + 3] = (byte) 0xC0;
+        }
+        respond(exchange, 200, "audio/mpeg", mp3);
+    }
+
+    /**
+     * Apply the simulated latency and error rate
+     * @return false if the request was failed and answered already
+     */
+    private boolean begin(HttpExchange exchange) throws IOException {
+        requests.increment();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMillis + (jitterMillis > 0 ? random.nextLong(jitterMillis + 1) : 0);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (random.nextInt(100) < errorPercent) {
+            failures.increment();
+            respond(exchange, 503, "text/plain", "injected failure".getBytes(StandardCharsets.UTF_8));
+            return false;
+        }
+        return true;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.iishanto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * translateAsync on a document whose paragraphs are all cached: splitting, encoding, the cache lookups
+ * and merging the results, without any network traffic.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranslateCacheBenchmark {
+    @Param({"en", "bn", "zh"})
+    public String lang;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private String text;
+
+    @Setup
+    public void setup() throws IOException {
+        // Settings are read when the singletons are first used, so this keeps the user's data dir out of it
+        System.setProperty("iidict.dataDir", Files.createTempDirectory("iidict-bench").toString());
+        System.setProperty("iidict.cache.maxBytes", String.valueOf(256L * 1024 * 1024));
+        text = Corpus.text(lang, size);
+        TranslationCache cache = TranslationCache.getInstance();
+        for (String line : text.split("\n", -1)) {
+            String encoded = FormattingCodec.encode(line);
+            if (!FormattingCodec.isFormattingOnly(encoded)) cache.put(lang, "bn", encoded, "[" + encoded + "]");
+        }
+    }
+
+    @Benchmark
+    public String cachedDocument() {
+        return GoogleTranslateClient.getInstance().translateAsync(text, lang, "bn").join();
+    }
+}
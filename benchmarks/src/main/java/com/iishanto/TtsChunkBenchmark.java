@@ -0,0 +1,48 @@
+package com.iishanto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splitting text into TTS request-sized chunks at sentence boundaries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TtsChunkBenchmark {
+    @Param({"en", "bn", "zh"})
+    public String lang;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private final AudioPlayer player = new AudioPlayer();
+    private String text;
+    private String sentenceEnders;
+
+    @Setup
+    public void setup() {
+        text = Corpus.text(lang, size);
+        sentenceEnders = Corpus.sentenceEnders(lang);
+    }
+
+    @Benchmark
+    public List<String> breakTextIntoChunks() {
+        return player.breakTextIntoChunks(text, sentenceEnders);
+    }
+}
@@ -0,0 +1,175 @@
+package com.iishanto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Owns the translateHtml API key: fetches it from the element.js bootstrap,
+ * keeps it on disk for a limited time and refreshes it when the server rejects it.
+ */
+public class ApiKeyManager {
+    private static final String API_KEY_SOURCE_LINK = Settings.getString("web.baseUrl", "https://translate.google.com")
+            + "/translate_a/element.js?cb=gtElInit&hl=en-US&client=wt";
+    private static final Pattern LOAD_JS_PATTERN = Pattern.compile("_loadJs\\('([^']*)'\\)");
+    private static final Pattern HEX_ESCAPE_PATTERN = Pattern.compile("\\\\x([0-9A-Fa-f]{2})");
+    private static final Pattern API_KEY_PATTERN = Pattern.compile("\"X-goog-api-key\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final HttpTransport transport;
+    private final Path file;
+    private final long ttlMillis;
+    private CompletableFuture<String> current;
+    private long fetchedAt;
+
+    ApiKeyManager(HttpTransport transport) {
+        this(transport, Settings.getDataDir().resolve("api-key.properties"),
+                Settings.getLong("apiKey.ttlMinutes", 12 * 60) * 60_000L);
+    }
+
+    ApiKeyManager(HttpTransport transport, Path file, long ttlMillis) {
+        this.transport = transport;
+        this.file = file;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Start loading the key in the background so the first translation only needs one request
+     */
+    public void prefetch() {
+        getKey().exceptionally(e -> {
+            System.err.println("API key prefetch failed: " + e.getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * @return a future completing with the key, or null if none could be found
+     */
+    public synchronized CompletableFuture<String> getKey() {
+        if (current != null && !isStale()) {
+            return current;
+        }
+        String stored = readStoredKey();
+        if (stored != null) {
+            current = CompletableFuture.completedFuture(stored);
+            return current;
+        }
+        return fetch();
+    }
+
+    /**
+     * Called when the server rejected {@code staleKey}; concurrent callers share a single re-fetch
+     */
+    public synchronized CompletableFuture<String> refresh(String staleKey) {
+        if (current != null && current.isDone() && !current.isCompletedExceptionally()
+                && !Objects.equals(current.join(), staleKey)) {
+            return current;
+        }
+        if (current != null && !current.isDone()) {
+            return current;
+        }
+        System.out.println("API key rejected, fetching a new one");
+        return fetch();
+    }
+
+    private boolean isStale() {
+        if (current.isCompletedExceptionally()) return true;
+        if (!current.isDone()) return false;
+        return current.join() == null || System.currentTimeMillis() - fetchedAt > ttlMillis;
+    }
+
+    private CompletableFuture<String> fetch() {
+        long started = System.nanoTime();
+        CompletableFuture<String> future = fetchKeyJs().thenApply(key -> {
+            Metrics.record(Metrics.Phase.TOKEN_FETCH, started);
+            if (key != null && !key.isEmpty()) storeKey(key);
+            return key == null || key.isEmpty() ? null : key;
+        });
+        fetchedAt = System.currentTimeMillis();
+        current = future;
+        return future;
+    }
+
+    private CompletableFuture<String> fetchKeyJs() {
+        HttpRequest req = transport.request(API_KEY_SOURCE_LINK).GET().build();
+        return transport.client().sendAsync(req, HttpResponse.BodyHandlers.ofString()).thenCompose(res -> {
+            String url = getApiKeyJs(res.body());
+            if (url == null) return CompletableFuture.completedFuture(null);
+            HttpRequest keyReq = transport.request(url).GET().build();
+            return transport.client().sendAsync(keyReq, HttpResponse.BodyHandlers.ofString())
+                    .thenApply(keyRes -> extractApiKey(keyRes.body()));
+        });
+    }
+
+    private String readStoredKey() {
+        if (!Files.isRegularFile(file)) return null;
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            props.load(in);
+            String key = props.getProperty("key");
+            long storedAt = Long.parseLong(props.getProperty("fetchedAt", "0"));
+            if (key == null || key.isEmpty() || System.currentTimeMillis() - storedAt > ttlMillis) {
+                return null;
+            }
+            fetchedAt = storedAt;
+            return key;
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Could not read cached API key: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void storeKey(String key) {
+        Properties props = new Properties();
+        props.setProperty("key", key);
+        props.setProperty("fetchedAt", String.valueOf(System.currentTimeMillis()));
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                props.store(out, "translateHtml API key");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not cache API key: " + e.getMessage());
+        }
+    }
+
+    private String getApiKeyJs(String body) {
+        Matcher m = LOAD_JS_PATTERN.matcher(body);
+        if (m.find()) {
+            String url = m.group(1);
+            return decodeString(url);
+        }
+        return null;
+    }
+
+    private String decodeString(String input) {
+        StringBuilder sb = new StringBuilder();
+        Matcher m = HEX_ESCAPE_PATTERN.matcher(input);
+        int lastEnd = 0;
+        while (m.find()) {
+            sb.append(input, lastEnd, m.start());
+            int code = Integer.parseInt(m.group(1), 16);
+            sb.append((char) code);
+            lastEnd = m.end();
+        }
+        sb.append(input.substring(lastEnd));
+        return sb.toString().replace("\\/", "/");
+    }
+
+    private String extractApiKey(String jsCode) {
+        Matcher m = API_KEY_PATTERN.matcher(jsCode);
+        return m.find() ? m.group(1) : "";
+    }
+}
@@ -4,8 +4,10 @@ import javafx.application.Platform;
 import javazoom.jl.player.Player;
 
 import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -103,7 +105,7 @@ public class AudioPlayer {
                     if (!isPlaying) break;
 
                     String url = Tools.getConfig().getTtsUrl(chunk, languageCode);
-                    playChunkSync(url);
+                    playChunkSync(url, chunk, languageCode);
 
                     // Small delay between chunks
                     if (isPlaying) {
@@ -128,14 +130,38 @@ public class AudioPlayer {
     /**
      * Play a single audio chunk synchronously using JLayer MP3 player
      */
-    private void playChunkSync(String urlString) throws Exception {
-        URL url = new URL(urlString);
+    private void playChunkSync(String urlString, String chunk, String language) throws Exception {
+        HttpTransport transport = HttpTransport.getInstance();
+        HttpRequest req = transport.request(urlString).GET().build();
+        FlightEvents.TtsChunkFetch fetch = new FlightEvents.TtsChunkFetch();
+        fetch.begin();
+        HttpResponse<InputStream> res = transport.client().send(req, HttpResponse.BodyHandlers.ofInputStream());
+        fetch.end();
+        if (fetch.shouldCommit()) {
+            fetch.language = language;
+            fetch.characters = chunk.length();
+            fetch.status = res.statusCode();
+            fetch.commit();
+        }
+        if (res.statusCode() != 200) {
+            res.body().close();
+            throw new IOException("TTS request failed with HTTP " + res.statusCode());
+        }
 
-        try (InputStream audioStream = new BufferedInputStream(url.openStream())) {
+        FlightEvents.TtsChunkDecode decode = new FlightEvents.TtsChunkDecode();
+        FlightEvents.CountingInputStream counted = decode.isEnabled() ? new FlightEvents.CountingInputStream(res.body()) : null;
+        decode.begin();
+        try (InputStream audioStream = new BufferedInputStream(counted != null ? counted : res.body())) {
             currentPlayer = new Player(audioStream);
             currentPlayer.play();
             currentPlayer.close();
             currentPlayer = null;
+            decode.end();
+            if (decode.shouldCommit()) {
+                // A recording started during playback finds no counter
+                decode.bytes = counted == null ? 0 : counted.count();
+                decode.commit();
+            }
         } catch (Exception e) {
             System.err.println("Error playing chunk: " + e.getMessage());
             if (currentPlayer != null) {
@@ -0,0 +1,192 @@
+package com.iishanto;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless translation of text streams: every line of stdin (or of the given files, in order) is translated
+ * and written to stdout as one line, in input order. Starts neither JavaFX nor the clipboard monitor.
+ * <p>
+ * {@code java -jar translator.jar --translate [-s auto] [-t bn] [-c 4] [file...]}
+ * <p>
+ * Lines go through the same cache, single-flight and batching as the window. At most {@code -c}
+ * translateHtml requests run at once, and at most two full batches per request are held in memory.
+ */
+public class BatchTranslator {
+    private static final String USAGE = "Usage: --translate [-s sourceLanguage] [-t targetLanguage] [-c concurrentRequests] [file|- ...]";
+    private static final int BUFFER_CHARS = 1 << 16;
+
+    private final String sourceLanguage;
+    private final String targetLanguage;
+    private final BlockingQueue<Line> queue;
+    private final GoogleTranslateClient client = GoogleTranslateClient.getInstance();
+    private long failed = 0;
+
+    /**
+     * A line in flight; the sentinel with a null translation marks the end of input
+     */
+    private record Line(long number, CompletableFuture<String> translation) {
+    }
+
+    private static final Line END = new Line(-1, null);
+
+    BatchTranslator(String sourceLanguage, String targetLanguage, int inFlightLines) {
+        this.sourceLanguage = sourceLanguage;
+        this.targetLanguage = targetLanguage;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, inFlightLines));
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * @return the process exit code: 0 if every line was translated, 1 if some were not, 2 on bad arguments or I/O errors
+     */
+    static int run(String[] args) {
+        String sl = "auto";
+        String tl = "bn";
+        int concurrency = -1;
+        List<String> files = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-s" -> sl = args[++i];
+                    case "-t" -> tl = args[++i];
+                    case "-c" -> concurrency = Integer.parseInt(args[++i]);
+                    case "-h", "--help" -> {
+                        System.err.println(USAGE);
+                        return 0;
+                    }
+                    default -> files.add(args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            System.err.println(USAGE);
+            return 2;
+        }
+        // The batcher reads its limit once, when the client is first used
+        if (concurrency > 0) System.setProperty("iidict.batch.maxConcurrent", String.valueOf(concurrency));
+        int requests = Settings.getInt("batch.maxConcurrent", 4);
+        // Room for a second full batch per request, assembled while the first is in flight
+        int inFlight = 2 * requests * Settings.getInt("batch.maxParagraphs", 128);
+
+        // stdout carries translations only; the engine's own messages go to stderr
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), BUFFER_CHARS);
+        System.setOut(System.err);
+        if (files.isEmpty()) files.add("-");
+
+        BatchTranslator translator = new BatchTranslator(sl, tl, inFlight);
+        // Set up TLS, the API key and the connection while the first lines are read and looked up in the cache
+        Thread.ofVirtual().name("BatchPrefetch").start(translator.client::prefetchToken);
+        try {
+            return translator.translate(files, out) ? 0 : 1;
+        } catch (IOException e) {
+            System.err.println("Batch translation failed: " + e.getMessage());
+            return 2;
+        } finally {
+            TranslationStore.getInstance().close();
+        }
+    }
+
+    /**
+     * Translate the files in order, "-" meaning stdin
+     * @return false if any line could not be translated; it is written as an empty line
+     */
+    boolean translate(List<String> files, Writer out) throws IOException {
+        IOException[] writeError = new IOException[1];
+        Thread writer = new Thread(() -> {
+            try {
+                drain(out);
+            } catch (IOException e) {
+                writeError[0] = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "BatchWriter");
+        writer.start();
+
+        long number = 0;
+        try {
+            for (String file : files) {
+                try (BufferedReader reader = file.equals("-")
+                        ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), BUFFER_CHARS)
+                        : Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        CompletableFuture<String> translation = line.isBlank()
+                                ? CompletableFuture.completedFuture(line)
+                                : client.translateAsync(line, sourceLanguage, targetLanguage);
+                        if (!enqueue(new Line(++number, translation), writer)) break;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                enqueue(END, writer);
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (writeError[0] != null) throw writeError[0];
+        if (failed > 0) System.err.println(failed + " of " + number + " lines could not be translated");
+        return failed == 0;
+    }
+
+    /**
+     * Wait while the queue is full, so memory stays bounded however long the input is
+     * @return false if the writer has stopped, after a write error
+     */
+    private boolean enqueue(Line line, Thread writer) throws InterruptedException {
+        while (!queue.offer(line, 100, TimeUnit.MILLISECONDS)) {
+            if (!writer.isAlive()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Write translations in input order, flushing whenever the next one is not ready yet
+     */
+    private void drain(Writer out) throws IOException, InterruptedException {
+        while (true) {
+            Line line = queue.peek();
+            if (line == null || (line.translation() != null && !line.translation().isDone())) out.flush();
+            line = queue.take();
+            if (line == END) break;
+            String text;
+            try {
+                text = line.translation().join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                System.err.println("Line " + line.number() + ": " + cause.getMessage());
+                text = null;
+            }
+            if (text == null) {
+                failed++;
+                text = "";
+            }
+            out.write(HtmlEntityDecoder.decode(text));
+            out.write('\n');
+        }
+        out.flush();
+    }
+}
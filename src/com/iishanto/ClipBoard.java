@@ -1,7 +1,9 @@
 package com.iishanto;
 
 import java.awt.*;
+import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.DataFlavor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 public class ClipBoard {
@@ -9,8 +11,18 @@ public class ClipBoard {
     boolean first_cpy=true;
     private volatile boolean running = true;
     private final Thread monitorThread;
+    // Released by the flavor listener so a change is picked up without waiting for the next poll
+    private final Semaphore changed = new Semaphore(0);
+    private final long minPollMillis = Settings.getLong("clipboard.minPollMillis", 100);
+    private final long maxPollMillis = Settings.getLong("clipboard.maxPollMillis", 1000);
+    // Larger clips are ignored, or cut to this size when truncation is enabled
+    private final int maxChars = Math.max(1, Settings.getInt("clipboard.maxChars", 200_000));
+    private final boolean truncate = Settings.getBoolean("clipboard.truncate", false);
+    // Raw clipboard data last seen, so unchanged data is not decoded again
+    private String previousRaw = null;
 
     public ClipBoard(){
+        listenForChanges();
         monitorThread = new Thread(this::init);
         monitorThread.setDaemon(true); // Make it a daemon thread so it doesn't prevent JVM shutdown
         monitorThread.setName("ClipboardMonitor");
@@ -24,22 +36,55 @@ public class ClipBoard {
         }
     }
 
+    /**
+     * Platforms that notify clipboard changes wake the monitor immediately; polling still covers the rest,
+     * since a new copy with the same data flavors is not reported everywhere
+     */
+    private void listenForChanges(){
+        try {
+            Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+            clipboard.addFlavorListener(e -> changed.release());
+        } catch (Exception e) {
+            System.out.println("Clipboard change notifications unavailable, polling only: " + e.getMessage());
+        }
+    }
+
     void init(){
+        long interval = minPollMillis;
         while (running){
             try {
-                String text=getClipBoard();
+                long polled = System.nanoTime();
+                FlightEvents.ClipboardPoll poll = new FlightEvents.ClipboardPoll();
+                poll.begin();
+                String raw=readClipBoard();
+                String text=unchanged(raw) ? previous : prepare(raw);
+                poll.end();
+                if (poll.shouldCommit()) {
+                    poll.characters = raw.length();
+                    poll.changed = !first_cpy && !text.isEmpty() && !text.equals(previous);
+                    poll.commit();
+                }
                 if(text.equals(previous)|| text.isEmpty()) {
                     first_cpy=false;
+                    // Idle: back off gradually so an unused clipboard costs few wakeups
+                    interval = Math.min(maxPollMillis, interval + interval / 2 + 1);
                 } else if(first_cpy){
                     first_cpy=false;
                     previous=text;
                 } else {
+                    Metrics.record(Metrics.Phase.CLIPBOARD_DETECT, polled);
+                    EventBus.getInstance().publish(new TranslationEvent.ClipboardChanged(text));
                     Tools.getConfig().regNewText(text);
                     Tools.getConfig().callEvent("new_text");
                     previous=text;
+                    // Copies tend to come in bursts, so poll quickly again after one
+                    interval = minPollMillis;
+                }
+                // Wait for a change notification or the next poll, whichever comes first
+                if (changed.tryAcquire(interval, TimeUnit.MILLISECONDS)) {
+                    changed.drainPermits();
+                    interval = minPollMillis;
                 }
-                // Sleep 200ms between clipboard checks to avoid locking the clipboard
-                TimeUnit.MILLISECONDS.sleep(200);
             } catch (InterruptedException e) {
                 System.out.println("Clipboard monitoring interrupted");
             }
@@ -48,12 +93,37 @@ public class ClipBoard {
     }
 
     public String getClipBoard(){
+        return prepare(readClipBoard());
+    }
+
+    private String readClipBoard(){
         try {
             String data=(String) Toolkit.getDefaultToolkit().getSystemClipboard().getData(DataFlavor.stringFlavor);
-            // Decode HTML entities from clipboard text
-            return Tools.decodeHtmlEntities(data.trim());
+            return data == null ? "" : data;
         } catch (Exception e){
             return "";
         }
     }
+
+    /**
+     * Compare the raw data with the previous poll without copying or decoding it; equals() checks the length first
+     */
+    private boolean unchanged(String raw){
+        boolean same = raw.equals(previousRaw);
+        previousRaw = raw;
+        return same;
+    }
+
+    private String prepare(String data){
+        if (data.length() > maxChars) {
+            if (!truncate) {
+                System.out.println("Ignoring clipboard text of " + data.length() + " characters (limit " + maxChars + ")");
+                return "";
+            }
+            int end = Character.isHighSurrogate(data.charAt(maxChars - 1)) ? maxChars - 1 : maxChars;
+            data = data.substring(0, end);
+        }
+        // Decode HTML entities from clipboard text
+        return Tools.decodeHtmlEntities(data.trim());
+    }
 }
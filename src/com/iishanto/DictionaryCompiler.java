@@ -0,0 +1,385 @@
+package com.iishanto;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Build-time tool that turns word lists into the binary format read by {@link OfflineDictionary}.
+ * <p>
+ * Inputs are streamed: CSV files with "headword,gloss" rows (an optional header row of column names is skipped) or
+ * JSON files holding either an object of headword to gloss or an array of {"word", "meaning"} objects.
+ * Entries are normalized and sorted with an external merge sort, so memory stays bounded however
+ * large the inputs are; glosses of duplicate headwords are merged.
+ * <pre>
+ *   java -cp translator.jar com.iishanto.DictionaryCompiler dictionary.bin words.csv more-words.json
+ * </pre>
+ */
+public class DictionaryCompiler {
+    private static final int DEFAULT_RUN_BYTES = 64 * 1024 * 1024;
+    private static final String GLOSS_SEPARATOR = "; ";
+    private static final Set<String> HEADER_NAMES = Set.of(
+            "word", "headword", "en", "english", "meaning", "gloss", "definition", "translation", "bn", "bangla", "bengali");
+
+    private final long runBytes;
+    private final Path workDir;
+    private final List<Path> runs = new ArrayList<>();
+    private final List<Entry> buffer = new ArrayList<>();
+    private long bufferBytes = 0;
+    private long rowsRead = 0;
+
+    DictionaryCompiler(Path workDir, long runBytes) {
+        this.workDir = workDir;
+        this.runBytes = runBytes;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Thrown rather than exiting, so running it in a build tool's JVM does not end the build
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: DictionaryCompiler <output.bin> <input.csv|input.json>...");
+        }
+        Path output = Path.of(args[0]);
+        Path workDir = Files.createTempDirectory("iidict-compile");
+        try {
+            DictionaryCompiler compiler = new DictionaryCompiler(workDir, Settings.getLong("compiler.runBytes", DEFAULT_RUN_BYTES));
+            for (int i = 1; i < args.length; i++) {
+                compiler.read(Path.of(args[i]));
+            }
+            int count = compiler.write(output);
+            System.out.println("Wrote " + count + " headwords from " + compiler.rowsRead + " rows to " + output);
+        } finally {
+            deleteRecursively(workDir);
+        }
+    }
+
+    void read(Path input) throws IOException {
+        String name = input.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".json")) {
+            readJson(input);
+        } else {
+            readCsv(input);
+        }
+    }
+
+    private void readCsv(Path input) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            String line;
+            boolean first = true;
+            while ((line = reader.readLine()) != null) {
+                if (first && line.startsWith("\uFEFF")) line = line.substring(1);
+                // Quoted fields may span lines
+                while (countQuotes(line) % 2 == 1) {
+                    String more = reader.readLine();
+                    if (more == null) break;
+                    line = line + "\n" + more;
+                }
+                List<String> fields = parseCsvLine(line);
+                if (first) {
+                    first = false;
+                    if (isHeader(fields)) continue;
+                }
+                if (fields.size() >= 2) add(fields.get(0), fields.get(1));
+            }
+        }
+    }
+
+    /**
+     * A first row is a header only if every column is a known column name, so a headword such as "word" is kept
+     */
+    static boolean isHeader(List<String> fields) {
+        for (String field : fields) {
+            if (!HEADER_NAMES.contains(field.strip().toLowerCase(Locale.ROOT))) return false;
+        }
+        return !fields.isEmpty();
+    }
+
+    private static int countQuotes(String line) {
+        int quotes = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') quotes++;
+        }
+        return quotes;
+    }
+
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private void readJson(Path input) throws IOException {
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(input, StandardCharsets.UTF_8))) {
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String word = reader.nextName();
+                    add(word, readGloss(reader));
+                }
+                reader.endObject();
+                return;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String word = null;
+                String gloss = null;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String key = reader.nextName();
+                    if (key.equals("word") || key.equals("headword") || key.equals("en")) {
+                        word = reader.nextString();
+                    } else if (key.equals("meaning") || key.equals("gloss") || key.equals("bn")) {
+                        gloss = readGloss(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                add(word, gloss);
+            }
+            reader.endArray();
+        }
+    }
+
+    /**
+     * A gloss is either a string or an array of alternative strings
+     */
+    private static String readGloss(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) return reader.nextString();
+        StringBuilder sb = new StringBuilder();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (sb.length() > 0) sb.append(GLOSS_SEPARATOR);
+            sb.append(reader.nextString());
+        }
+        reader.endArray();
+        return sb.toString();
+    }
+
+    void add(String word, String gloss) throws IOException {
+        rowsRead++;
+        if (word == null || gloss == null) return;
+        String headword = OfflineDictionary.normalize(word);
+        String meaning = gloss.strip();
+        if (headword.isEmpty() || meaning.isEmpty()) return;
+
+        Entry entry = new Entry(headword.getBytes(StandardCharsets.UTF_8), meaning);
+        buffer.add(entry);
+        bufferBytes += 64 + entry.key.length + 2L * meaning.length();
+        if (bufferBytes >= runBytes) spill();
+    }
+
+    /**
+     * Sort the buffered entries and write them out as one run
+     */
+    private void spill() throws IOException {
+        if (buffer.isEmpty()) return;
+        buffer.sort((a, b) -> Arrays.compareUnsigned(a.key, b.key)); // stable, keeps input order within a run
+        Path run = workDir.resolve("run-" + runs.size());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+            for (Entry entry : buffer) {
+                byte[] gloss = entry.gloss.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(entry.key.length);
+                out.write(entry.key);
+                out.writeInt(gloss.length);
+                out.write(gloss);
+            }
+        }
+        runs.add(run);
+        buffer.clear();
+        bufferBytes = 0;
+    }
+
+    /**
+     * Merge all runs into the final dictionary file
+     * @return number of headwords written
+     */
+    int write(Path output) throws IOException {
+        spill();
+        Path table = workDir.resolve("table");
+        Path pool = workDir.resolve("pool");
+        int count = 0;
+        long poolSize = 0;
+
+        // Ties go to the earlier run, so merged glosses keep their input order
+        PriorityQueue<RunReader> queue = new PriorityQueue<>((a, b) -> {
+            int c = Arrays.compareUnsigned(a.key, b.key);
+            return c != 0 ? c : Integer.compare(a.index, b.index);
+        });
+        try (OutputStream tableOut = new BufferedOutputStream(Files.newOutputStream(table), 1 << 16);
+             OutputStream poolOut = new BufferedOutputStream(Files.newOutputStream(pool), 1 << 16)) {
+            for (int i = 0; i < runs.size(); i++) {
+                RunReader reader = new RunReader(runs.get(i), i);
+                if (reader.next()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                byte[] key = queue.peek().key;
+                Set<String> glosses = new LinkedHashSet<>();
+                // Collect every run's entries for this headword
+                while (!queue.isEmpty() && Arrays.equals(queue.peek().key, key)) {
+                    RunReader reader = queue.poll();
+                    for (String part : reader.gloss.split(GLOSS_SEPARATOR)) {
+                        if (!part.isBlank()) glosses.add(part.strip());
+                    }
+                    if (reader.next()) {
+                        queue.add(reader);
+                    } else {
+                        reader.close();
+                    }
+                }
+                byte[] gloss = String.join(GLOSS_SEPARATOR, glosses).getBytes(StandardCharsets.UTF_8);
+
+                // The whole file is mapped as one buffer: header, the table with this entry and the end offset, and the pool
+                long fileSize = OfflineDictionary.HEADER_SIZE + (2L * (count + 1) + 1) * 4 + poolSize + key.length + gloss.length;
+                if (fileSize > Integer.MAX_VALUE) {
+                    throw new IOException("Dictionary file would exceed 2 GB, the most that can be mapped");
+                }
+                writeIntLE(tableOut, (int) poolSize);
+                poolOut.write(key);
+                poolSize += key.length;
+                writeIntLE(tableOut, (int) poolSize);
+                poolOut.write(gloss);
+                poolSize += gloss.length;
+                count++;
+            }
+            writeIntLE(tableOut, (int) poolSize);
+        } finally {
+            for (RunReader reader : queue) reader.close();
+        }
+
+        // Header, then table and pool, with a CRC32 over everything after the header
+        CRC32 crc = new CRC32();
+        updateCrc(crc, table);
+        updateCrc(crc, pool);
+        long dataLength = Files.size(table) + Files.size(pool);
+
+        Path tmp = output.toAbsolutePath().resolveSibling(output.getFileName() + ".tmp");
+        if (tmp.getParent() != null) Files.createDirectories(tmp.getParent());
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16)) {
+            writeIntLE(out, OfflineDictionary.MAGIC);
+            writeIntLE(out, OfflineDictionary.VERSION);
+            writeIntLE(out, count);
+            writeIntLE(out, 0);
+            writeLongLE(out, crc.getValue());
+            writeLongLE(out, dataLength);
+            Files.copy(table, out);
+            Files.copy(pool, out);
+        }
+        Files.move(tmp, output, StandardCopyOption.REPLACE_EXISTING);
+        return count;
+    }
+
+    private static void updateCrc(CRC32 crc, Path file) throws IOException {
+        byte[] chunk = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(chunk)) > 0) {
+                crc.update(chunk, 0, n);
+            }
+        }
+    }
+
+    private static void writeIntLE(OutputStream out, int value) throws IOException {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    private static void writeLongLE(OutputStream out, long value) throws IOException {
+        writeIntLE(out, (int) value);
+        writeIntLE(out, (int) (value >>> 32));
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    private record Entry(byte[] key, String gloss) {
+    }
+
+    /**
+     * Sequential reader over one sorted run
+     */
+    private static final class RunReader implements AutoCloseable {
+        private final DataInputStream in;
+        final int index;
+        byte[] key;
+        String gloss;
+
+        RunReader(Path run, int index) throws IOException {
+            this.index = index;
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+        }
+
+        boolean next() throws IOException {
+            try {
+                key = new byte[in.readInt()];
+                in.readFully(key);
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                gloss = new String(bytes, StandardCharsets.UTF_8);
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
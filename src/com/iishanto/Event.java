@@ -1,5 +0,0 @@
-package com.iishanto;
-
-public interface Event {
-    void event();
-}
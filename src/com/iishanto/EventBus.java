@@ -0,0 +1,92 @@
+package com.iishanto;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Delivers typed events to subscribers without blocking the publisher. Every subscriber has its own bounded
+ * queue drained in order on a virtual thread; when a slow subscriber falls behind, its oldest events are dropped.
+ */
+public class EventBus {
+    private static final EventBus instance = new EventBus(Settings.getInt("bus.queueCapacity", 64));
+
+    private final List<Subscriber<?>> subscribers = new CopyOnWriteArrayList<>();
+    private final Executor executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("EventBus-", 0).factory());
+    private final int capacity;
+
+    EventBus(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    public static EventBus getInstance() {
+        return instance;
+    }
+
+    /**
+     * Receive every published event of {@code type} (or a subtype), one at a time and in publishing order
+     * @return closing it stops further deliveries
+     */
+    public <E> AutoCloseable subscribe(Class<E> type, Consumer<? super E> listener) {
+        Subscriber<E> subscriber = new Subscriber<>(type, listener);
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    public void publish(Object event) {
+        for (Subscriber<?> subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    private final class Subscriber<E> {
+        private final Class<E> type;
+        private final Consumer<? super E> listener;
+        private final ArrayDeque<E> queue = new ArrayDeque<>();
+        private boolean draining = false;
+        private long dropped = 0;
+
+        Subscriber(Class<E> type, Consumer<? super E> listener) {
+            this.type = type;
+            this.listener = listener;
+        }
+
+        void offer(Object event) {
+            if (!type.isInstance(event)) return;
+            synchronized (this) {
+                if (queue.size() >= capacity) {
+                    queue.pollFirst();
+                    if (dropped++ % capacity == 0) {
+                        System.err.println("Event listener is falling behind, dropped " + dropped + " events");
+                    }
+                }
+                queue.addLast(type.cast(event));
+                if (draining) return;
+                draining = true;
+            }
+            executor.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                E event;
+                synchronized (this) {
+                    event = queue.pollFirst();
+                    if (event == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    listener.accept(event);
+                } catch (RuntimeException e) {
+                    System.err.println("Event listener failed: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.iishanto;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.StackTrace;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Java Flight Recorder events for the translation lifecycle, shown under "iidict" in JDK Mission Control.
+ * When no recording is running, creating, timing and committing them is optimized away,
+ * so callers only guard work done to fill in fields with {@code shouldCommit()}.
+ */
+public final class FlightEvents {
+    private FlightEvents() {
+    }
+
+    @Name("com.iishanto.ClipboardPoll")
+    @Label("Clipboard Poll")
+    @Category({"iidict", "Clipboard"})
+    @Description("One read of the system clipboard by the monitor thread")
+    @StackTrace
+    public static final class ClipboardPoll extends Event {
+        @Label("Characters")
+        int characters;
+
+        @Label("Changed")
+        @Description("The clipboard held new text that was sent for translation")
+        boolean changed;
+    }
+
+    @Name("com.iishanto.TranslationRequest")
+    @Label("Translation Request")
+    @Category({"iidict", "Translation"})
+    @Description("One translateAsync call, from splitting the text into paragraphs to the joined translation")
+    @StackTrace
+    public static final class TranslationRequest extends Event {
+        @Label("Source Language")
+        String sourceLanguage;
+
+        @Label("Target Language")
+        String targetLanguage;
+
+        @Label("Paragraphs")
+        int paragraphs;
+
+        @Label("Cache Hits")
+        @Description("Paragraphs answered from the memory or disk cache")
+        int cacheHits;
+
+        @Label("Characters")
+        int characters;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    @Name("com.iishanto.MemoryMatch")
+    @Label("Translation Memory Match")
+    @Category({"iidict", "Translation"})
+    @Description("A similar earlier translation shown while the real one is fetched")
+    public static final class MemoryMatch extends Event {
+        @Label("Similarity")
+        @Percentage
+        double similarity;
+
+        @Label("Characters")
+        int characters;
+    }
+
+    @Name("com.iishanto.TranslateExchange")
+    @Label("Translate Exchange")
+    @Category({"iidict", "Translation"})
+    @Description("One translateHtml HTTP request, including reading and parsing the response")
+    @StackTrace
+    public static final class TranslateExchange extends Event {
+        @Label("Paragraphs")
+        int paragraphs;
+
+        @Label("Request Bytes")
+        @DataAmount
+        long requestBytes;
+
+        @Label("Response Bytes")
+        @DataAmount
+        long responseBytes;
+
+        @Label("Status")
+        int status;
+    }
+
+    @Name("com.iishanto.TtsChunkFetch")
+    @Label("TTS Chunk Fetch")
+    @Category({"iidict", "Speech"})
+    @Description("Request for one chunk of text-to-speech audio, until its response headers arrive")
+    @StackTrace
+    public static final class TtsChunkFetch extends Event {
+        @Label("Language")
+        String language;
+
+        @Label("Characters")
+        int characters;
+
+        @Label("Status")
+        int status;
+    }
+
+    @Name("com.iishanto.TtsChunkDecode")
+    @Label("TTS Chunk Decode")
+    @Category({"iidict", "Speech"})
+    @Description("Streaming, decoding and playing one chunk of MP3 audio; the player decodes as it plays")
+    @StackTrace
+    public static final class TtsChunkDecode extends Event {
+        @Label("Audio Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("com.iishanto.FontLoad")
+    @Label("Font Load")
+    @Category({"iidict", "UI"})
+    @Description("Loading one system font file at startup")
+    @StackTrace
+    public static final class FontLoad extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Family")
+        String family;
+
+        @Label("Loaded")
+        boolean loaded;
+    }
+
+    /**
+     * Counts the bytes read through it, for events reporting transfer sizes
+     */
+    static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.iishanto;
+
+/**
+ * Encodes one paragraph for translateHtml so its leading and trailing spaces and tabs survive translation
+ * (as {@code <sp>}/{@code <tr>} placeholders) and the text itself is sent as HTML-escaped text.
+ * {@code decode(encode(p))}, after HTML entity decoding, gives back {@code p} exactly.
+ */
+public final class FormattingCodec {
+    static final String SPACE_PLACEHOLDER = "<sp>";
+    static final String TAB_PLACEHOLDER = "<tr>";
+    private static final int PLACEHOLDER_LENGTH = 4;
+
+    private FormattingCodec() {
+    }
+
+    public static String encode(String paragraph) {
+        if (paragraph == null) return null;
+        int n = paragraph.length();
+        int lead = 0;
+        while (lead < n && isFormatting(paragraph.charAt(lead))) lead++;
+        int trail = n;
+        while (trail > lead && isFormatting(paragraph.charAt(trail - 1))) trail--;
+
+        StringBuilder sb = new StringBuilder(n + PLACEHOLDER_LENGTH * (n - trail + lead) + 8);
+        appendPlaceholders(sb, paragraph, 0, lead);
+        int copied = lead;
+        for (int i = lead; i < trail; i++) {
+            String escape = switch (paragraph.charAt(i)) {
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '&' -> "&amp;";
+                default -> null;
+            };
+            if (escape == null) continue;
+            sb.append(paragraph, copied, i).append(escape);
+            copied = i + 1;
+        }
+        sb.append(paragraph, copied, trail);
+        appendPlaceholders(sb, paragraph, trail, n);
+        return sb.toString();
+    }
+
+    /**
+     * Restore the placeholders in a translated paragraph; HTML entities are left for the caller to decode
+     */
+    public static String decode(String text) {
+        if (text == null) return null;
+        int lt = text.indexOf('<');
+        if (lt < 0) return text;
+        StringBuilder sb = new StringBuilder(text.length());
+        int copied = 0;
+        while (lt >= 0) {
+            char replacement = placeholderAt(text, lt);
+            if (replacement != 0) {
+                sb.append(text, copied, lt).append(replacement);
+                copied = lt + PLACEHOLDER_LENGTH;
+            }
+            lt = text.indexOf('<', lt + 1);
+        }
+        return sb.append(text, copied, text.length()).toString();
+    }
+
+    /**
+     * @return true if the encoded paragraph holds nothing but placeholders, so there is nothing to translate
+     */
+    public static boolean isFormattingOnly(String encoded) {
+        if (encoded.length() % PLACEHOLDER_LENGTH != 0) return false;
+        for (int i = 0; i < encoded.length(); i += PLACEHOLDER_LENGTH) {
+            if (placeholderAt(encoded, i) == 0) return false;
+        }
+        return true;
+    }
+
+    private static boolean isFormatting(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static void appendPlaceholders(StringBuilder sb, String paragraph, int from, int to) {
+        for (int i = from; i < to; i++) {
+            sb.append(paragraph.charAt(i) == ' ' ? SPACE_PLACEHOLDER : TAB_PLACEHOLDER);
+        }
+    }
+
+    private static char placeholderAt(String text, int i) {
+        if (text.startsWith(SPACE_PLACEHOLDER, i)) return ' ';
+        if (text.startsWith(TAB_PLACEHOLDER, i)) return '\t';
+        return 0;
+    }
+}
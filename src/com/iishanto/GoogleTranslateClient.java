@@ -1,188 +1,361 @@
 package com.iishanto;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.regex.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
 
 public class GoogleTranslateClient {
-    private static final String API_KEY_SOURCE_LINK = "https://translate.google.com/translate_a/element.js?cb=gtElInit&hl=en-US&client=wt";
-    private static final String API_HTML_TRANSLATE_URL = "https://translate-pa.googleapis.com/v1/translateHtml";
+    private static final String API_HTML_TRANSLATE_URL = Settings.getString("api.baseUrl", "https://translate-pa.googleapis.com") + "/v1/translateHtml";
     private static final GoogleTranslateClient instance = new GoogleTranslateClient();
-    private static final Map<String, Map<String, String>> cache = new HashMap<>();
 
-    // Use rare Unicode characters as placeholders that won't be translated
-    private static final String SPACE_PLACEHOLDER = "<sp>";
-    private static final String TAB_PLACEHOLDER = "<tr>";
+    private static final long PARTIAL_INTERVAL_MS = 100;
 
-    private final HttpClient client = HttpClient.newHttpClient();
-    private String token;
+    private final HttpTransport transport = HttpTransport.getInstance();
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final ApiKeyManager apiKeys = new ApiKeyManager(transport);
+    private final TranslateBatcher batcher;
+    private final TranslationCache cache;
+    private final TranslationStore store;
 
     private GoogleTranslateClient() {
+        batcher = new TranslateBatcher(this::sendTranslate);
+        cache = TranslationCache.getInstance();
+        store = TranslationStore.getInstance();
+    }
+
+    /**
+     * A client with its own batcher and caches, e.g. a batcher whose sender is not translateHtml
+     */
+    GoogleTranslateClient(TranslateBatcher batcher, TranslationCache cache, TranslationStore store) {
+        this.batcher = batcher;
+        this.cache = cache;
+        this.store = store;
     }
 
     public static GoogleTranslateClient getInstance() {
         return instance;
     }
 
+    public String getTokenJs() throws IOException, InterruptedException {
+        return await(apiKeys.getKey());
+    }
+
     /**
-     * Encode formatting characters before translation to preserve them
+     * Warm up the API key and the translate connection in the background at startup
      */
-    private String encodeFormatting(String text) {
-        if (text == null) return null;
-        if (text.isEmpty()) return " ";
-        StringBuilder prefix = new StringBuilder();
-        // If text starts or ends with space, preserve it by adding placeholders
-        int i = 0;
-        while (i < text.length()) {
-            if (text.charAt(i) == ' '){
-                prefix.append(SPACE_PLACEHOLDER);
-            }else if (text.charAt(i) == '\t'){
-                prefix.append(TAB_PLACEHOLDER);
-            }else{
-                break;
-            }
-            i++;
-        }
-
-        StringBuilder suffix = new StringBuilder();
-        int j= text.length() -1;
-        while (j >=0){
-            if (text.charAt(j) == ' '){
-                suffix.append(new StringBuilder(SPACE_PLACEHOLDER).reverse());
-            }else if (text.charAt(j) == '\t'){
-                suffix.append(new StringBuilder(TAB_PLACEHOLDER).reverse());
-            }else{
-                break;
-            }
-            j--;
-        }
-        prefix.append(text.trim());
-        prefix.append(suffix.reverse());
+    public void prefetchToken() {
+        apiKeys.prefetch();
+        transport.warmUp(API_HTML_TRANSLATE_URL);
+    }
 
-        return prefix.toString();
+    /**
+     * Blocking wrapper around {@link #translateAsync(String, String, String)}
+     */
+    public String translateList(String sentence, String sl, String tl) throws IOException, InterruptedException {
+        return await(translateAsync(sentence, sl, tl));
     }
 
     /**
-     * Decode formatting characters after translation to restore them
+     * Translate newline separated paragraphs without blocking the caller.
+     * Cancelling the returned future withdraws its paragraphs from the batcher, aborting a request nobody else waits on.
+     * Completes with null when no API token is available or the response was incomplete.
      */
-    private String decodeFormatting(String text) {
-        if (text == null) return null;
-        return text.replace(TAB_PLACEHOLDER, "\t")
-                .replace(SPACE_PLACEHOLDER, " ");
+    public CompletableFuture<String> translateAsync(String sentence, String sl, String tl) {
+        return translateAsync(sentence, sl, tl, null);
     }
 
-    public String getTokenJs() throws IOException, InterruptedException {
-        HttpRequest req = HttpRequest.newBuilder(URI.create(API_KEY_SOURCE_LINK)).GET().build();
-        HttpResponse<String> res = client.send(req, HttpResponse.BodyHandlers.ofString());
-        String body = res.body();
-        String url = getApiKeyJs(body);
-        if (url != null) {
-            return getApiKey(url);
+    /**
+     * Like {@link #translateAsync(String, String, String)}, but large inputs are split into size-bounded
+     * batches that are translated in parallel; {@code onPartial} receives the translated leading
+     * paragraphs, in order, whenever more of them become available.
+     */
+    public CompletableFuture<String> translateAsync(String sentence, String sl, String tl, Consumer<String> onPartial) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Exchanges exchanges = new Exchanges(result);
+        FlightEvents.TranslationRequest event = new FlightEvents.TranslationRequest();
+        event.begin();
+
+        // Encode formatting in input texts, one paragraph per line; a CR before the LF belongs to the line break
+        List<String> encodedWordList = new ArrayList<>();
+        int start = 0;
+        while (true) {
+            int newline = sentence.indexOf('\n', start);
+            int end = newline < 0 ? sentence.length() : newline;
+            if (newline >= 0 && end > start && sentence.charAt(end - 1) == '\r') end--;
+            encodedWordList.add(FormattingCodec.encode(sentence.substring(start, end)));
+            if (newline < 0) break;
+            start = newline + 1;
         }
-        return null;
-    }
 
-    public String translateList(String sentence, String sl, String tl) throws IOException, InterruptedException {
-        if (token == null) token = getTokenJs();
-        if (token != null) {
-
-            List<String> wordList2 = new ArrayList<>();
-            Map<Integer, Integer> idxs = new HashMap<>();
-            int pos = 0;
-
-            // Encode formatting in input texts
-            List<String> encodedWordList = new ArrayList<>();
-            sentence=sentence.replace(TAB_PLACEHOLDER, "&lt;tr&gt;");
-            sentence=sentence.replace(SPACE_PLACEHOLDER, "&lt;sp&gt;");
-            String[] paragraphs = sentence.split("\n");
-            List<String> wordList = new ArrayList<>(Arrays.asList(paragraphs));
-            for (String word : wordList) {
-                encodedWordList.add(encodeFormatting(word));
+        resolve(encodedWordList, sl, tl, exchanges, onPartial, event).whenComplete((finalData, ex) -> {
+            event.end();
+            if (event.shouldCommit()) {
+                event.sourceLanguage = sl;
+                event.targetLanguage = tl;
+                event.paragraphs = encodedWordList.size();
+                event.characters = sentence.length();
+                event.succeeded = ex == null && finalData != null;
+                event.commit();
             }
+            if (ex != null) {
+                result.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            } else {
+                result.complete(finalData == null ? null : String.join("\n", finalData));
+            }
+        });
+        return result;
+    }
 
-            for (int i = 0; i < encodedWordList.size(); i++) {
-                Map<String, String> langCache = cache.get(tl);
-                if (langCache == null || !langCache.containsKey(encodedWordList.get(i))) {
-                    idxs.put(i, pos++);
-                    wordList2.add(encodedWordList.get(i));
-                }
+    /**
+     * Look paragraphs up in the caches and fetch the rest, completing with null if any paragraph is missing.
+     * Cache hits are counted on {@code event} when one is given.
+     */
+    private CompletableFuture<String[]> resolve(List<String> encodedWordList, String sl, String tl, Exchanges exchanges,
+                                                Consumer<String> onPartial, FlightEvents.TranslationRequest event) {
+        List<String> wordList2 = new ArrayList<>();
+        List<CompletableFuture<String>> owned = new ArrayList<>();
+        Map<Integer, CompletableFuture<String>> pending = new HashMap<>();
+
+        String[] finalData = new String[encodedWordList.size()];
+        for (int i = 0; i < encodedWordList.size(); i++) {
+            String paragraph = encodedWordList.get(i);
+            if (FormattingCodec.isFormattingOnly(paragraph)) {
+                // Blank lines are kept as they are
+                finalData[i] = FormattingCodec.decode(paragraph);
+                continue;
+            }
+            long lookup = System.nanoTime();
+            String cached = cache.get(sl, tl, paragraph);
+            if (cached == null) {
+                // Fall back to the on-disk cache before asking the network
+                cached = store.get(sl, tl, paragraph);
+                if (cached != null) cache.put(sl, tl, paragraph, cached);
+            }
+            Metrics.record(Metrics.Phase.CACHE_LOOKUP, lookup);
+            if (cached != null) {
+                finalData[i] = cached;
+                if (event != null) event.cacheHits++;
+                continue;
             }
+            // Single-flight: only the first caller asking for a paragraph sends it, the rest wait for that result
+            String key = TranslationCache.key(sl, tl, paragraph);
+            CompletableFuture<String> flight = new CompletableFuture<>();
+            CompletableFuture<String> existing = inFlight.putIfAbsent(key, flight);
+            if (existing != null && existing.isCompletedExceptionally() && inFlight.replace(key, existing, flight)) {
+                existing = null; // a failed flight that has not been cleaned up yet
+            }
+            if (existing != null) {
+                // If the owner was cancelled, fetch the paragraph again for this caller
+                pending.put(i, existing.exceptionallyCompose(ex -> isCancellation(ex)
+                        ? resolve(List.of(paragraph), sl, tl, exchanges, null, null).thenApply(r -> r == null ? null : r[0])
+                        : CompletableFuture.failedFuture(ex)));
+            } else {
+                pending.put(i, flight);
+                owned.add(flight);
+                wordList2.add(paragraph);
+            }
+        }
 
-            List<String> data = new ArrayList<>();
-            if (!wordList2.isEmpty()) {
-                String body = new Gson().toJson(Arrays.asList(Arrays.asList(wordList2, sl, tl), "wt_lib"));
-                HttpRequest req = HttpRequest.newBuilder(URI.create(API_HTML_TRANSLATE_URL))
-                        .headers("X-Goog-Api-Key", token, "Content-Type", "application/json+protobuf")
-                        .POST(HttpRequest.BodyPublishers.ofString(body))
-                        .build();
-                HttpResponse<String> res = client.send(req, HttpResponse.BodyHandlers.ofString());
-                JsonArray json = JsonParser.parseString(res.body()).getAsJsonArray();
-                JsonArray arr = json.get(0).getAsJsonArray();
-                for (int i = 0; i < arr.size(); i++) {
-                    // Decode formatting in output
-                    data.add(decodeFormatting(arr.get(i).getAsString()));
+        for (int i = 0; i < owned.size(); i++) {
+            String paragraph = wordList2.get(i);
+            CompletableFuture<String> flight = owned.get(i);
+            exchanges.track(flight);
+            flight.whenComplete((translated, ex) -> {
+                inFlight.remove(TranslationCache.key(sl, tl, paragraph), flight);
+                if (translated != null) {
+                    cache.put(sl, tl, paragraph, translated);
+                    store.put(sl, tl, paragraph, translated);
                 }
+            });
+        }
+        if (!wordList2.isEmpty()) {
+            batcher.submit(sl, tl, wordList2, owned);
+        }
+
+        Progress progress = onPartial == null || pending.isEmpty() ? null : new Progress(finalData, onPartial);
+        for (Map.Entry<Integer, CompletableFuture<String>> e : pending.entrySet()) {
+            int index = e.getKey();
+            e.getValue().thenAccept(translated -> {
+                if (translated == null) return;
+                finalData[index] = translated;
+                if (progress != null) progress.advance();
+            });
+        }
+
+        return CompletableFuture.allOf(pending.values().toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            for (Map.Entry<Integer, CompletableFuture<String>> e : pending.entrySet()) {
+                String translated = e.getValue().join();
+                if (translated == null) return null;
+                finalData[e.getKey()] = translated;
             }
+            return finalData;
+        });
+    }
 
-            if (!data.isEmpty() || !cache.isEmpty()) {
-                List<String> finalData = new ArrayList<>();
-                for (int i = 0; i < encodedWordList.size(); i++) {
-                    Integer idx = idxs.get(i);
-                    if (idx != null && idx < data.size()) {
-                        cache.computeIfAbsent(tl, k -> new HashMap<>());
-                        String translated = data.get(idx);
-                        cache.get(tl).put(encodedWordList.get(i), translated);
-                        finalData.add(translated);
+    /**
+     * Reports the contiguous translated prefix of a document, at most every PARTIAL_INTERVAL_MS
+     */
+    private static final class Progress {
+        private final String[] data;
+        private final Consumer<String> onPartial;
+        private int next = 0;
+        private int reported = 0;
+        private long lastReport = 0;
+
+        Progress(String[] data, Consumer<String> onPartial) {
+            this.data = data;
+            this.onPartial = onPartial;
+        }
+
+        synchronized void advance() {
+            while (next < data.length && data[next] != null) next++;
+            long now = System.currentTimeMillis();
+            if (next == reported || next == data.length || now - lastReport < PARTIAL_INTERVAL_MS) return;
+            reported = next;
+            lastReport = now;
+            onPartial.accept(String.join("\n", Arrays.asList(data).subList(0, next)));
+        }
+    }
+
+    /**
+     * POST paragraphs to translateHtml, streaming each translation to {@code onParagraph} as it is parsed.
+     * Completes without emitting anything when no API token is available.
+     * A rejected key (401/403) is refreshed and the request retried once; any other non-2xx status
+     * fails with an IOException naming it.
+     */
+    private CompletableFuture<Void> sendTranslate(List<String> wordList2, String sl, String tl,
+                                                  BiConsumer<Integer, String> onParagraph) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        Exchanges exchanges = new Exchanges(result);
+        apiKeys.getKey()
+                .thenCompose(apiToken -> sendTranslate(wordList2, sl, tl, onParagraph, apiToken, true, exchanges))
+                .whenComplete((v, ex) -> {
+                    if (ex != null) {
+                        result.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
                     } else {
-                        finalData.add(cache.get(tl).get(encodedWordList.get(i)));
+                        result.complete(null);
                     }
+                });
+        return result;
+    }
+
+    private CompletableFuture<Void> sendTranslate(List<String> wordList2, String sl, String tl,
+                                                  BiConsumer<Integer, String> onParagraph,
+                                                  String apiToken, boolean retryOnReject, Exchanges exchanges) {
+        if (apiToken == null) return CompletableFuture.completedFuture(null);
+        String body = new Gson().toJson(Arrays.asList(Arrays.asList(wordList2, sl, tl), "wt_lib"));
+        HttpRequest req = transport.request(API_HTML_TRANSLATE_URL)
+                .headers("X-Goog-Api-Key", apiToken, "Content-Type", "application/json+protobuf")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long sent = System.nanoTime();
+        FlightEvents.TranslateExchange event = new FlightEvents.TranslateExchange();
+        event.begin();
+        return exchanges.track(transport.client().sendAsync(req, HttpResponse.BodyHandlers.ofInputStream())).thenCompose(res -> {
+            Metrics.record(Metrics.Phase.HTTP_ROUND_TRIP, sent);
+            FlightEvents.CountingInputStream counted = event.isEnabled() ? new FlightEvents.CountingInputStream(res.body()) : null;
+            try (InputStream in = counted != null ? counted : res.body()) {
+                if (retryOnReject && (res.statusCode() == 401 || res.statusCode() == 403)) {
+                    commit(event, wordList2.size(), body, res.statusCode(), counted);
+                    return apiKeys.refresh(apiToken)
+                            .thenCompose(fresh -> sendTranslate(wordList2, sl, tl, onParagraph, fresh, false, exchanges));
                 }
-                return String.join("\n", finalData);
+                // Error pages (429, 5xx, a key rejected again) are not JSON; report the status instead of a parse error
+                if (res.statusCode() < 200 || res.statusCode() >= 300) {
+                    commit(event, wordList2.size(), body, res.statusCode(), counted);
+                    return CompletableFuture.failedFuture(new IOException("Translation request failed with HTTP " + res.statusCode()));
+                }
+                long parsing = System.nanoTime();
+                readTranslations(in, onParagraph);
+                Metrics.record(Metrics.Phase.JSON_PARSE, parsing);
+                commit(event, wordList2.size(), body, res.statusCode(), counted);
+                return CompletableFuture.completedFuture(null);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-        }
-        return null;
+        });
     }
 
-    private String getApiKeyJs(String body) {
-        Pattern p = Pattern.compile("_loadJs\\('([^']*)'\\)");
-        Matcher m = p.matcher(body);
-        if (m.find()) {
-            String url = m.group(1);
-            return decodeString(url);
-        }
-        return null;
-    }
-
-    private String decodeString(String input) {
-        StringBuilder sb = new StringBuilder();
-        Matcher m = Pattern.compile("\\\\x([0-9A-Fa-f]{2})").matcher(input);
-        int lastEnd = 0;
-        while (m.find()) {
-            sb.append(input, lastEnd, m.start());
-            int code = Integer.parseInt(m.group(1), 16);
-            sb.append((char) code);
-            lastEnd = m.end();
+    private static void commit(FlightEvents.TranslateExchange event, int paragraphs, String body, int status,
+                               FlightEvents.CountingInputStream counted) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.paragraphs = paragraphs;
+        event.requestBytes = body.getBytes(StandardCharsets.UTF_8).length;
+        event.responseBytes = counted == null ? 0 : counted.count();
+        event.status = status;
+        event.commit();
+    }
+
+    /**
+     * Read the [[translation, ...], ...] response one string at a time, never holding the whole body
+     */
+    private void readTranslations(InputStream in, BiConsumer<Integer, String> onParagraph) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        reader.beginArray();
+        reader.beginArray();
+        int i = 0;
+        while (reader.hasNext()) {
+            // Decode formatting in output
+            onParagraph.accept(i++, FormattingCodec.decode(reader.nextString()));
         }
-        sb.append(input.substring(lastEnd));
-        return sb.toString().replace("\\/", "/");
     }
 
-    private String getApiKey(String url) throws IOException, InterruptedException {
-        HttpRequest req = HttpRequest.newBuilder(URI.create(url)).GET().build();
-        HttpResponse<String> res = client.send(req, HttpResponse.BodyHandlers.ofString());
-        return extractApiKey(res.body());
+    private static boolean isCancellation(Throwable ex) {
+        return ex instanceof CancellationException
+                || (ex instanceof CompletionException && ex.getCause() instanceof CancellationException);
     }
 
-    private String extractApiKey(String jsCode) {
-        Pattern p = Pattern.compile("\"X-goog-api-key\"\\s*:\\s*\"([^\"]+)\"");
-        Matcher m = p.matcher(jsCode);
-        return m.find() ? m.group(1) : "";
+    private static <T> T await(CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException io) throw io.getCause();
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Work started on behalf of one caller, cancelled when the caller's future is cancelled
+     */
+    private static final class Exchanges {
+        private final CompletableFuture<?> owner;
+        private final List<CompletableFuture<?>> started = new CopyOnWriteArrayList<>();
+
+        Exchanges(CompletableFuture<?> owner) {
+            this.owner = owner;
+            owner.whenComplete((r, ex) -> {
+                if (owner.isCancelled()) started.forEach(f -> f.cancel(true));
+            });
+        }
+
+        <T> CompletableFuture<T> track(CompletableFuture<T> exchange) {
+            started.add(exchange);
+            if (owner.isCancelled()) exchange.cancel(true);
+            return exchange;
+        }
     }
 
 }
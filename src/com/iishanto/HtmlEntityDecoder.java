@@ -0,0 +1,191 @@
+package com.iishanto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass decoder for HTML character references: every HTML5 named entity (including the legacy
+ * forms without a semicolon) and decimal/hex numeric references, supplementary code points included.
+ */
+public final class HtmlEntityDecoder {
+    private static final String TABLE_RESOURCE = "res/html-entities.csv";
+    private static final int MAX_NAME_LENGTH = 32;
+    // Longest entity that is also recognized without its semicolon ("frac12", "middot")
+    private static final int MAX_LEGACY_LENGTH = 6;
+    private static final int RETAINED_BUFFER_CHARS = 1 << 16;
+    // Numeric references 0x80-0x9F mean their windows-1252 characters, as in browsers
+    private static final char[] WINDOWS_1252 = {
+            '\u20AC', '\u0081', '\u201A', '\u0192', '\u201E', '\u2026', '\u2020', '\u2021',
+            '\u02C6', '\u2030', '\u0160', '\u2039', '\u0152', '\u008D', '\u017D', '\u008F',
+            '\u0090', '\u2018', '\u2019', '\u201C', '\u201D', '\u2022', '\u2013', '\u2014',
+            '\u02DC', '\u2122', '\u0161', '\u203A', '\u0153', '\u009D', '\u017E', '\u0178'};
+
+    // Sorted entity names ("amp;", and "amp" for the legacy form) and their replacement text
+    private static final String[] NAMES;
+    private static final String[] VALUES;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+
+    static {
+        List<String> names = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        try (InputStream in = HtmlEntityDecoder.class.getClassLoader().getResourceAsStream(TABLE_RESOURCE)) {
+            if (in == null) throw new IOException(TABLE_RESOURCE + " not found");
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comma = line.indexOf(',');
+                if (comma <= 0) continue;
+                String name = line.substring(0, comma);
+                StringBuilder value = new StringBuilder(2);
+                for (String hex : line.substring(comma + 1).split(" ")) {
+                    value.appendCodePoint(Integer.parseInt(hex, 16));
+                }
+                // Kept from the original decoder: a non-breaking space is copied as a plain space
+                names.add(name);
+                values.add(name.startsWith("nbsp") ? " " : value.toString());
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not load HTML entity table, decoding the basic entities only: " + e.getMessage());
+            names.clear();
+            values.clear();
+            String[][] basic = {{"amp;", "&"}, {"apos;", "'"}, {"gt;", ">"}, {"lt;", "<"}, {"nbsp;", " "}, {"quot;", "\""}};
+            for (String[] entry : basic) {
+                names.add(entry[0]);
+                values.add(entry[1]);
+            }
+        }
+        NAMES = names.toArray(new String[0]);
+        VALUES = values.toArray(new String[0]);
+    }
+
+    private HtmlEntityDecoder() {
+    }
+
+    /**
+     * @return the text with all character references replaced; the same instance if it contains none
+     */
+    public static String decode(String text) {
+        if (text == null) return null;
+        int amp = text.indexOf('&');
+        if (amp < 0) return text;
+
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        int n = text.length();
+        int copied = 0;
+        while (amp >= 0) {
+            int end = amp + 1 < n && text.charAt(amp + 1) == '#'
+                    ? decodeNumeric(text, amp, out, copied)
+                    : decodeNamed(text, amp, out, copied);
+            if (end > 0) {
+                copied = end;
+                amp = text.indexOf('&', end);
+            } else {
+                amp = text.indexOf('&', amp + 1);
+            }
+        }
+        if (copied == 0) return text;
+        out.append(text, copied, n);
+        String result = out.toString();
+        if (out.capacity() > RETAINED_BUFFER_CHARS) BUFFER.remove();
+        return result;
+    }
+
+    /**
+     * @return the index after the reference, or 0 if there is none at {@code amp}
+     */
+    private static int decodeNumeric(String text, int amp, StringBuilder out, int copied) {
+        int n = text.length();
+        int i = amp + 2;
+        int radix = 10;
+        if (i < n && (text.charAt(i) == 'x' || text.charAt(i) == 'X')) {
+            radix = 16;
+            i++;
+        }
+        int start = i;
+        int code = 0;
+        for (; i < n; i++) {
+            int digit = Character.digit(text.charAt(i), radix);
+            if (digit < 0 || text.charAt(i) > 'f') break;
+            // Saturate instead of overflowing; anything past U+10FFFF is invalid anyway
+            code = code > Character.MAX_CODE_POINT ? code : code * radix + digit;
+        }
+        if (i == start) return 0;
+        if (i < n && text.charAt(i) == ';') i++;
+
+        out.append(text, copied, amp);
+        if (code >= 0x80 && code <= 0x9F) {
+            out.append(WINDOWS_1252[code - 0x80]);
+        } else if (code == 0 || code > Character.MAX_CODE_POINT || (code >= Character.MIN_SURROGATE && code <= Character.MAX_SURROGATE)) {
+            out.append('\uFFFD');
+        } else {
+            out.appendCodePoint(code);
+        }
+        return i;
+    }
+
+    private static int decodeNamed(String text, int amp, StringBuilder out, int copied) {
+        int n = text.length();
+        int start = amp + 1;
+        int i = start;
+        while (i < n && i - start <= MAX_NAME_LENGTH && isAsciiLetterOrDigit(text.charAt(i))) i++;
+        if (i == start) return 0;
+
+        int index = -1;
+        int end = i;
+        if (i < n && text.charAt(i) == ';') {
+            end = i + 1;
+            index = find(text, start, end);
+        }
+        // Legacy references such as "&copy" or "&amp" may omit the semicolon, but as in HTML attributes
+        // not when a letter, digit or "=" follows, so "?id=1&section=2&copy=4" in a URL stays as it is
+        if (index < 0 && i - start <= MAX_LEGACY_LENGTH && (i >= n || text.charAt(i) != '=')) {
+            end = i;
+            index = find(text, start, end);
+        }
+        if (index < 0) return 0;
+
+        out.append(text, copied, amp);
+        out.append(VALUES[index]);
+        return end;
+    }
+
+    /**
+     * Binary search for the name text[start, end) without creating a substring
+     */
+    private static int find(String text, int start, int end) {
+        int lo = 0;
+        int hi = NAMES.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compare(NAMES[mid], text, start, end);
+            if (c < 0) {
+                lo = mid + 1;
+            } else if (c > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static int compare(String name, String text, int start, int end) {
+        int len = end - start;
+        int min = Math.min(name.length(), len);
+        for (int k = 0; k < min; k++) {
+            int c = name.charAt(k) - text.charAt(start + k);
+            if (c != 0) return c;
+        }
+        return name.length() - len;
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+}
@@ -0,0 +1,81 @@
+package com.iishanto;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single HTTP client shared by translation, API key bootstrap and text-to-speech,
+ * so they all reuse the same (HTTP/2 where available) connections.
+ */
+public class HttpTransport {
+    private static final HttpTransport instance = new HttpTransport();
+
+    private final Duration requestTimeout;
+    private final ExecutorService executor;
+    // Built on first use: setting up TLS takes a noticeable part of a second, which cached work never needs
+    private volatile HttpClient client;
+
+    private HttpTransport() {
+        requestTimeout = Duration.ofMillis(Settings.getLong("http.requestTimeoutMillis", 15_000));
+        AtomicInteger count = new AtomicInteger();
+        // Cached rather than fixed: response bodies read as streams block a thread until their data arrives
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "HttpTransport-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static HttpTransport getInstance() {
+        return instance;
+    }
+
+    public HttpClient client() {
+        HttpClient c = client;
+        if (c == null) {
+            synchronized (this) {
+                c = client;
+                if (c == null) {
+                    c = HttpClient.newBuilder()
+                            .version(HttpClient.Version.HTTP_2)
+                            .connectTimeout(Duration.ofMillis(Settings.getLong("http.connectTimeoutMillis", 5_000)))
+                            .followRedirects(HttpClient.Redirect.NORMAL)
+                            .executor(executor)
+                            .build();
+                    client = c;
+                }
+            }
+        }
+        return c;
+    }
+
+    public ExecutorService executor() {
+        return executor;
+    }
+
+    /**
+     * Request builder with the shared request timeout applied
+     */
+    public HttpRequest.Builder request(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(requestTimeout);
+    }
+
+    /**
+     * Open connections to the given hosts in the background so the first real request skips the TLS handshake
+     */
+    public void warmUp(String... urls) {
+        for (String url : urls) {
+            HttpRequest req = request(url).method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+            client().sendAsync(req, HttpResponse.BodyHandlers.discarding()).exceptionally(e -> {
+                System.err.println("Connection warm-up failed for " + url + ": " + e.getMessage());
+                return null;
+            });
+        }
+    }
+}
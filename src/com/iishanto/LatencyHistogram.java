@@ -0,0 +1,119 @@
+package com.iishanto;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram in the style of HdrHistogram: log-linear buckets of nanoseconds with
+ * 64 sub-buckets per power of two, so any recorded value is reported within about 1.6%.
+ */
+public class LatencyHistogram implements LatencyHistogramMBean {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values below this are counted exactly, one bucket each
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+    // Highest power of two kept apart; larger values (beyond about 36 minutes) share the last bucket
+    private static final int MAX_EXPONENT = 41;
+    private static final int BUCKETS = LINEAR_LIMIT + (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucket(nanos));
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) count += counts.get(i);
+        return count;
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long count = getCount();
+        return count == 0 ? 0 : totalNanos.sum() / 1e6 / count;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return percentileMillis(50);
+    }
+
+    @Override
+    public double getP90Millis() {
+        return percentileMillis(90);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return percentileMillis(99);
+    }
+
+    @Override
+    public double getP999Millis() {
+        return percentileMillis(99.9);
+    }
+
+    /**
+     * @return the highest value in the bucket holding the given percentile, never above the recorded maximum
+     */
+    public double percentileMillis(double percent) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percent / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(highestInBucket(i), maxNanos.get()) / 1e6;
+        }
+        return getMaxMillis();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    static int bucket(long value) {
+        if (value < LINEAR_LIMIT) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        if (shift > MAX_EXPONENT - SUB_BUCKET_BITS) return BUCKETS - 1;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    static long highestInBucket(int bucket) {
+        if (bucket < LINEAR_LIMIT) return bucket;
+        int shift = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long sub = (bucket - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,24 @@
+package com.iishanto;
+
+/**
+ * JMX view of one {@link LatencyHistogram}, registered as {@code com.iishanto:type=Latency,name=<phase>}
+ */
+public interface LatencyHistogramMBean {
+    String getName();
+
+    long getCount();
+
+    double getMeanMillis();
+
+    double getMaxMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    void reset();
+}
@@ -0,0 +1,206 @@
+package com.iishanto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Turns a copied English word such as "Running," or "mice" into the key it is looked up by:
+ * surrounding punctuation stripped, case folded and, when a known headword confirms it, reduced to its lemma.
+ */
+public final class Lemmatizer {
+    private static final int MAX_WORD_CHARS = 64;
+    private static final String SURROUNDING_PUNCTUATION = ".,;:!?\"'()[]{}\u2026\u201C\u201D\u2018\u2019\u00AB\u00BB\u00A1\u00BF";
+    private static final Map<String, String> IRREGULAR = new HashMap<>();
+
+    static {
+        String[][] forms = {
+                {"be", "am", "is", "are", "was", "were", "been", "being"},
+                {"have", "has", "had", "having"},
+                {"do", "does", "did", "done"},
+                {"go", "goes", "went", "gone"},
+                {"man", "men"}, {"woman", "women"}, {"child", "children"}, {"person", "people"},
+                {"mouse", "mice"}, {"louse", "lice"}, {"goose", "geese"}, {"foot", "feet"}, {"tooth", "teeth"},
+                {"ox", "oxen"}, {"analysis", "analyses"}, {"crisis", "crises"}, {"thesis", "theses"},
+                {"criterion", "criteria"}, {"phenomenon", "phenomena"}, {"cactus", "cacti"}, {"fungus", "fungi"},
+                {"good", "better", "best"}, {"bad", "worse", "worst"}, {"far", "farther", "farthest", "further", "furthest"},
+                {"die", "dying"}, {"lie", "lying", "lay", "lain"}, {"tie", "tying"},
+                {"arise", "arose", "arisen"}, {"begin", "began", "begun"}, {"bite", "bit", "bitten"},
+                {"blow", "blew", "blown"}, {"break", "broke", "broken"}, {"bring", "brought"},
+                {"build", "built"}, {"buy", "bought"}, {"catch", "caught"}, {"choose", "chose", "chosen"},
+                {"come", "came"}, {"dig", "dug"}, {"draw", "drew", "drawn"}, {"drink", "drank", "drunk"},
+                {"drive", "drove", "driven"}, {"eat", "ate", "eaten"}, {"fall", "fell", "fallen"},
+                {"feel", "felt"}, {"fight", "fought"}, {"find", "found"}, {"fly", "flew", "flown", "flies"},
+                {"forget", "forgot", "forgotten"}, {"forgive", "forgave", "forgiven"}, {"freeze", "froze", "frozen"},
+                {"get", "got", "gotten"}, {"give", "gave", "given"}, {"grow", "grew", "grown"},
+                {"hang", "hung"}, {"hear", "heard"}, {"hide", "hid", "hidden"}, {"hold", "held"},
+                {"keep", "kept"}, {"know", "knew", "known"}, {"lead", "led"}, {"leave", "left"},
+                {"lend", "lent"}, {"lose", "lost"}, {"make", "made"}, {"mean", "meant"}, {"meet", "met"},
+                {"pay", "paid"}, {"ride", "rode", "ridden"}, {"ring", "rang", "rung"}, {"rise", "rose", "risen"},
+                {"run", "ran"}, {"say", "said"}, {"see", "saw", "seen"}, {"seek", "sought"}, {"sell", "sold"},
+                {"send", "sent"}, {"shake", "shook", "shaken"}, {"shine", "shone"}, {"shoot", "shot"},
+                {"sing", "sang", "sung"}, {"sink", "sank", "sunk"}, {"sit", "sat"}, {"sleep", "slept"},
+                {"speak", "spoke", "spoken"}, {"spend", "spent"}, {"stand", "stood"}, {"steal", "stole", "stolen"},
+                {"stick", "stuck"}, {"strike", "struck"}, {"swim", "swam", "swum"}, {"take", "took", "taken"},
+                {"teach", "taught"}, {"tear", "tore", "torn"}, {"tell", "told"}, {"think", "thought"},
+                {"throw", "threw", "thrown"}, {"understand", "understood"}, {"wake", "woke", "woken"},
+                {"wear", "wore", "worn"}, {"win", "won"}, {"write", "wrote", "written"},
+        };
+        for (String[] row : forms) {
+            for (int i = 1; i < row.length; i++) {
+                IRREGULAR.put(row[i], row[0]);
+            }
+        }
+    }
+
+    private Lemmatizer() {
+    }
+
+    /**
+     * @return the text as a single lowercase word without surrounding sentence punctuation, quotes or whitespace
+     * (the same instance if nothing changed), or null if it is not a single word. Other symbols are part of the
+     * word, so "C++", "#include" or "-5" give null rather than a different word.
+     */
+    public static String fold(String text) {
+        if (text == null) return null;
+        int start = 0;
+        int end = text.length();
+        while (start < end && isStripped(text.charAt(start))) start++;
+        while (end > start && isStripped(text.charAt(end - 1))) end--;
+        if (start == end || end - start > MAX_WORD_CHARS) return null;
+        if (!isWordChar(text.charAt(start)) || !isWordChar(text.charAt(end - 1))) return null;
+
+        boolean lower = true;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) return null;
+            if (c == '\u2019' || Character.isUpperCase(c)) lower = false;
+        }
+        if (lower) return start == 0 && end == text.length() ? text : text.substring(start, end);
+
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            sb.append(c == '\u2019' ? '\'' : Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Sentence punctuation, brackets and quotes a copied word may carry around it
+     */
+    private static boolean isStripped(char c) {
+        return Character.isWhitespace(c) || SURROUNDING_PUNCTUATION.indexOf(c) >= 0;
+    }
+
+    private static boolean isWordChar(char c) {
+        if (Character.isLetterOrDigit(c)) return true;
+        // Vowel signs of scripts such as Bengali are marks, not letters
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    /**
+     * Canonical key for a folded word: the word itself if {@code known}, else the first lemma that is
+     * (irregular forms, then inflection rules), else the word unchanged
+     */
+    public static String lemma(String word, Predicate<String> known) {
+        if (known.test(word)) return word;
+        for (String candidate : candidates(word)) {
+            if (known.test(candidate)) return candidate;
+        }
+        return word;
+    }
+
+    /**
+     * Possible lemmas of a folded English word, most likely first; empty if no rule applies
+     */
+    public static List<String> candidates(String word) {
+        List<String> result = new ArrayList<>(3);
+        String irregular = IRREGULAR.get(word);
+        if (irregular != null) result.add(irregular);
+        int n = word.length();
+        if (n < 3 || !isAsciiWord(word)) return result;
+
+        if (word.endsWith("'s")) {
+            add(result, word.substring(0, n - 2));
+        } else if (word.endsWith("s'")) {
+            add(result, word.substring(0, n - 1));
+        } else if (word.endsWith("ies") && n > 4) {
+            add(result, word.substring(0, n - 3) + "y");
+        } else if (word.endsWith("ves") && n > 4) {
+            add(result, word.substring(0, n - 3) + "f");
+            add(result, word.substring(0, n - 3) + "fe");
+            add(result, word.substring(0, n - 1));
+        } else if (word.endsWith("sses") || word.endsWith("xes") || word.endsWith("zes")
+                || word.endsWith("ches") || word.endsWith("shes") || word.endsWith("oes")) {
+            add(result, word.substring(0, n - 2));
+            add(result, word.substring(0, n - 1));
+        } else if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            add(result, word.substring(0, n - 1));
+        } else if (word.endsWith("ied") && n > 4) {
+            add(result, word.substring(0, n - 3) + "y");
+        } else if (word.endsWith("ed") && n > 4) {
+            addStem(result, word.substring(0, n - 2));
+        } else if (word.endsWith("ing") && n > 5) {
+            addStem(result, word.substring(0, n - 3));
+        } else if (word.endsWith("iest") && n > 6) {
+            add(result, word.substring(0, n - 4) + "y");
+        } else if (word.endsWith("est") && n > 5) {
+            addStem(result, word.substring(0, n - 3));
+        } else if (word.endsWith("ier") && n > 5) {
+            add(result, word.substring(0, n - 3) + "y");
+        } else if (word.endsWith("er") && n > 4) {
+            addStem(result, word.substring(0, n - 2));
+        }
+        return result;
+    }
+
+    /**
+     * Stem left after removing -ed/-ing/-er/-est: "stopp" -> stop, "mak" -> make, "walk" -> walk
+     */
+    private static void addStem(List<String> result, String stem) {
+        int n = stem.length();
+        char last = stem.charAt(n - 1);
+        if (n >= 3 && last == stem.charAt(n - 2) && !isVowel(last) && last != 'l' && last != 's' && last != 'z') {
+            add(result, stem.substring(0, n - 1));
+            add(result, stem);
+            return;
+        }
+        if (endsConsonantVowelConsonant(stem)) {
+            add(result, stem + "e");
+            add(result, stem);
+        } else {
+            add(result, stem);
+            add(result, stem + "e");
+        }
+        if (last == 'l' || last == 's' || last == 'z') add(result, stem.substring(0, n - 1));
+    }
+
+    private static boolean endsConsonantVowelConsonant(String s) {
+        int n = s.length();
+        if (n < 2) return false;
+        char c = s.charAt(n - 1);
+        if (isVowel(c) || c == 'w' || c == 'x' || c == 'y') return false;
+        if (!isVowel(s.charAt(n - 2))) return false;
+        return n == 2 || !isVowel(s.charAt(n - 3));
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+
+    private static boolean isAsciiWord(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if ((c < 'a' || c > 'z') && c != '\'' && c != '-') return false;
+        }
+        return true;
+    }
+
+    private static void add(List<String> result, String candidate) {
+        if (candidate.length() > 1 && !result.contains(candidate)) result.add(candidate);
+    }
+}
@@ -2,11 +2,19 @@ package com.iishanto;
 
 import javafx.application.Application;
 import java.io.IOException;
+import java.util.Arrays;
 
 public class Main {
     private static ClipBoard clipBoard;
 
     public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals("--translate")) {
+            // Headless batch mode: no window, clipboard monitor or TTS warm-up
+            System.exit(BatchTranslator.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+        OfflineDictionary.preload();
+        GoogleTranslateClient.getInstance().prefetchToken();
+        HttpTransport.getInstance().warmUp(Tools.TTS_BASE_URL);
         clipBoard = new ClipBoard();
         Application.launch(WindowFX.class, args);
     }
@@ -0,0 +1,127 @@
+package com.iishanto;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+
+/**
+ * Latency histograms for each stage of a translation and the translation cache counters, published over JMX
+ * ({@code com.iishanto:type=Latency}, {@code com.iishanto:type=Cache}) and written to {@code iidict.metrics.dumpFile}
+ * at exit when that is set.
+ */
+public class Metrics implements MetricsMBean {
+    public enum Phase {
+        // Reading, comparing and preparing clipboard data that turned out to be new
+        CLIPBOARD_DETECT("clipboardDetect"),
+        // Tools.callEvent until the translation is scheduled
+        DISPATCH("dispatch"),
+        // Fetching a new API key from the element.js bootstrap
+        TOKEN_FETCH("tokenFetch"),
+        // Memory and disk cache lookup of one paragraph
+        CACHE_LOOKUP("cacheLookup"),
+        // translateHtml request until its response headers arrive
+        HTTP_ROUND_TRIP("httpRoundTrip"),
+        // Streaming the response body and parsing the translations out of it
+        JSON_PARSE("jsonParse"),
+        // A completed translation reaching the window until it is shown, including the wait for the FX thread
+        UI_APPLY("uiApply"),
+        // Tools.callEvent until the translation is complete
+        TRANSLATION("translation");
+
+        final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final Metrics instance = new Metrics();
+
+    private final boolean enabled = Settings.getBoolean("metrics.enabled", true);
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Phase.values().length];
+
+    private Metrics() {
+        for (Phase phase : Phase.values()) {
+            histograms[phase.ordinal()] = new LatencyHistogram(phase.label);
+        }
+        if (!enabled) return;
+        // Starting the platform MBean server takes a while, so it is kept off the first translation's path
+        Thread.ofVirtual().name("MetricsJmx").start(this::register);
+        String dumpFile = Settings.getString("metrics.dumpFile", null);
+        if (dumpFile != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    dump(dumpFile);
+                } catch (IOException e) {
+                    System.err.println("Could not write metrics: " + e.getMessage());
+                }
+            }, "MetricsDump"));
+        }
+    }
+
+    public static Metrics getInstance() {
+        return instance;
+    }
+
+    /**
+     * Record the time elapsed since {@code startNanos}, a {@link System#nanoTime()} reading
+     */
+    public static void record(Phase phase, long startNanos) {
+        if (instance.enabled) instance.histograms[phase.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    public LatencyHistogram histogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    @Override
+    public String report() {
+        StringWriter out = new StringWriter();
+        PrintWriter writer = new PrintWriter(out);
+        writer.printf("# Translation latency in ms, %s%n", Instant.now());
+        writer.printf("%-16s %10s %10s %10s %10s %10s %10s %10s%n", "phase", "count", "mean", "p50", "p90", "p99", "p99.9", "max");
+        for (LatencyHistogram h : histograms) {
+            writer.printf("%-16s %10d %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f%n", h.getName(), h.getCount(), h.getMeanMillis(),
+                    h.getP50Millis(), h.getP90Millis(), h.getP99Millis(), h.getP999Millis(), h.getMaxMillis());
+        }
+        TranslationCache.Stats cache = TranslationCache.getInstance().stats();
+        writer.printf("# Translation cache: %d hits, %d misses (%.1f%% hit rate), %d evictions, %d entries, %d of %d bytes%n",
+                cache.hits(), cache.misses(), cache.hitRate() * 100, cache.evictions(), cache.size(), cache.weight(), cache.maxWeight());
+        writer.flush();
+        return out.toString();
+    }
+
+    @Override
+    public void dump(String file) throws IOException {
+        Path path = Paths.get(file);
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        Files.writeString(path, report(), StandardCharsets.UTF_8);
+        System.out.println("Metrics written to " + path.toAbsolutePath());
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram h : histograms) h.reset();
+    }
+
+    private void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName("com.iishanto:type=Metrics"));
+            for (LatencyHistogram h : histograms) {
+                server.registerMBean(h, new ObjectName("com.iishanto:type=Latency,name=" + h.getName()));
+            }
+            server.registerMBean(TranslationCache.getInstance(), new ObjectName("com.iishanto:type=Cache,name=translation"));
+        } catch (Exception e) {
+            System.err.println("Could not register metrics with JMX: " + e.getMessage());
+        }
+    }
+}
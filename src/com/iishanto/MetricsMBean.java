@@ -0,0 +1,20 @@
+package com.iishanto;
+
+import java.io.IOException;
+
+/**
+ * JMX operations over all latency histograms, registered as {@code com.iishanto:type=Metrics}
+ */
+public interface MetricsMBean {
+    /**
+     * @return a table of count, mean, percentiles and maximum per phase, then the translation cache counters
+     */
+    String report();
+
+    /**
+     * Write {@link #report()} to the given file
+     */
+    void dump(String file) throws IOException;
+
+    void reset();
+}
@@ -0,0 +1,508 @@
+package com.iishanto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Local English to Bengali dictionary backed by a memory-mapped, sorted, packed index.
+ *
+ * File layout (little endian):
+ * <pre>
+ *   header  magic "IIDX", version, entry count, reserved, CRC32 of everything after the header, data length
+ *   table   int[2 * count + 1]: headword offset, gloss offset for every entry, then the end of the pool
+ *   pool    headword0 gloss0 headword1 gloss1 ... as UTF-8, headwords sorted by their bytes
+ * </pre>
+ * A lookup is a binary search over the mapped bytes, so nothing but the result is allocated on the heap.
+ */
+public class OfflineDictionary {
+    static final int MAGIC = 0x58444949; // "IIDX" read little endian
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final String FILE_NAME = "dictionary.bin";
+
+    private static final int MAX_LOOKUP_CHARS = 64;
+    private static final int MAX_LOOKUP_WORDS = 4;
+    private static final int MAX_FUZZY_DEPTH = 96;
+    private static final int NO_BYTE = -2; // matches no query byte
+
+    // Completed with the dictionary, or null if none is installed or it failed verification
+    private static final CompletableFuture<OfflineDictionary> loaded = new CompletableFuture<>();
+    private static final AtomicBoolean loading = new AtomicBoolean();
+
+    private final ByteBuffer data;
+    private final int count;
+    private final int poolStart;
+
+    OfflineDictionary(ByteBuffer data) throws IOException {
+        this.data = data.order(ByteOrder.LITTLE_ENDIAN);
+        checkHeader(data, data.limit());
+        count = data.getInt(8);
+        poolStart = HEADER_SIZE + (2 * count + 1) * 4;
+        if (poolStart > data.limit()) {
+            throw new IOException("Truncated dictionary file");
+        }
+    }
+
+    private static void checkHeader(ByteBuffer header, long fileSize) throws IOException {
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        if (header.limit() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+            throw new IOException("Not a dictionary file");
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported dictionary version " + header.getInt(4));
+        }
+        if (header.getInt(8) < 0 || HEADER_SIZE + header.getLong(24) != fileSize) {
+            throw new IOException("Truncated dictionary file");
+        }
+    }
+
+    /**
+     * Never blocks, so it is safe on the FX thread: the first call starts opening the dictionary in the background
+     * @return the shared dictionary, or null if none is installed, it is corrupt or it is still being opened
+     */
+    public static OfflineDictionary getInstance() {
+        preload();
+        return loaded.getNow(null);
+    }
+
+    /**
+     * Start copying, mapping and verifying the dictionary on a background thread
+     */
+    public static void preload() {
+        if (!loading.compareAndSet(false, true)) return;
+        Thread.ofVirtual().name("DictionaryLoader").start(() -> {
+            String custom = Settings.getString("dictionary.path", null);
+            // A dictionary at a configured path is the user's own and is never replaced by the bundled one
+            boolean managed = custom == null;
+            Path file = managed ? Settings.getDataDir().resolve(FILE_NAME) : Path.of(custom);
+            OfflineDictionary dictionary = null;
+            try {
+                installBundled(file, managed, false);
+                if (Files.isRegularFile(file)) {
+                    try {
+                        dictionary = open(file);
+                    } catch (IOException e) {
+                        if (!managed || !installBundled(file, true, true)) throw e;
+                        System.err.println("Offline dictionary damaged, extracted it again: " + e.getMessage());
+                        dictionary = open(file);
+                    }
+                    System.out.println("Offline dictionary loaded: " + dictionary.size() + " headwords");
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Offline dictionary unavailable: " + e.getMessage());
+            }
+            loaded.complete(dictionary);
+        });
+    }
+
+    /**
+     * Check and then map a dictionary file; a truncated or corrupt file is rejected here instead of failing lookups.
+     * The checks read the file before it is mapped, so a rejected file can still be replaced on Windows.
+     */
+    public static OfflineDictionary open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) break;
+            }
+            checkHeader(header.flip(), size);
+            CRC32 crc = new CRC32();
+            ByteBuffer chunk = ByteBuffer.allocateDirect(1 << 16);
+            for (long pos = HEADER_SIZE; pos < size; ) {
+                int n = channel.read(chunk.clear(), pos);
+                if (n < 0) throw new IOException("Truncated dictionary file");
+                crc.update(chunk.flip());
+                pos += n;
+            }
+            if (crc.getValue() != header.getLong(16)) throw new IOException("Dictionary checksum mismatch in " + file);
+            return new OfflineDictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Copy the dictionary shipped inside the jar next to the other app data, since a jar entry cannot be mapped.
+     * An existing copy is left alone unless it is {@code managed} and either {@code damaged} or has a different
+     * header (version, size and checksum) than the bundled one, as after an upgrade.
+     * @return whether the file was written
+     */
+    private static boolean installBundled(Path file, boolean managed, boolean damaged) throws IOException {
+        try (InputStream in = OfflineDictionary.class.getClassLoader().getResourceAsStream("res/" + FILE_NAME)) {
+            return in != null && install(in, file, managed, damaged);
+        }
+    }
+
+    static boolean install(InputStream in, Path file, boolean managed, boolean damaged) throws IOException {
+        byte[] header = in.readNBytes(HEADER_SIZE);
+        if (Files.isRegularFile(file)) {
+            if (!managed) return false;
+            if (!damaged && Arrays.equals(header, readHeader(file))) return false;
+        }
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            out.write(header);
+            in.transferTo(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    private static byte[] readHeader(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return in.readNBytes(HEADER_SIZE);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Whether text is short enough to be a dictionary headword (a word or a short phrase)
+     */
+    public static boolean isLookupCandidate(String text) {
+        if (text == null) return false;
+        String trimmed = text.strip();
+        if (trimmed.isEmpty() || trimmed.length() > MAX_LOOKUP_CHARS) return false;
+        int words = 1;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c == '\n') return false;
+            if (Character.isWhitespace(c) && !Character.isWhitespace(trimmed.charAt(i - 1))) words++;
+        }
+        return words <= MAX_LOOKUP_WORDS;
+    }
+
+    /**
+     * Canonical headword form: trimmed, lower-cased, inner whitespace collapsed to single spaces
+     */
+    static String normalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+            } else {
+                if (space) sb.append(' ');
+                space = false;
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the Bengali gloss for a headword, or null if it is not in the dictionary
+     */
+    public String lookup(String word) {
+        if (word == null) return null;
+        int index = find(normalize(word).getBytes(StandardCharsets.UTF_8));
+        return index < 0 ? null : gloss(index);
+    }
+
+    String headword(int index) {
+        return string(keyOffset(index), glossOffset(index));
+    }
+
+    String gloss(int index) {
+        return string(glossOffset(index), keyOffset(index + 1));
+    }
+
+    /**
+     * Binary search for an exact headword
+     * @return its index, or -(insertion point) - 1
+     */
+    int find(byte[] key) {
+        int lo = 0;
+        int hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compare(mid, key);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    /**
+     * Compare headword {@code index} with {@code key} as unsigned bytes
+     */
+    int compare(int index, byte[] key) {
+        int start = keyOffset(index);
+        int length = glossOffset(index) - start;
+        int n = Math.min(length, key.length);
+        for (int i = 0; i < n; i++) {
+            int a = data.get(start + i) & 0xff;
+            int b = key[i] & 0xff;
+            if (a != b) return a - b;
+        }
+        return length - key.length;
+    }
+
+    /**
+     * A dictionary match; {@code distance} is 0 for exact and prefix matches
+     */
+    public record Suggestion(String headword, String gloss, int distance) {
+    }
+
+    /**
+     * Headwords starting with {@code prefix}, in sorted order
+     */
+    public List<Suggestion> prefix(String prefix, int limit) {
+        List<Suggestion> result = new ArrayList<>();
+        byte[] key = normalize(prefix).getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0) return result;
+        int index = find(key);
+        if (index < 0) index = -index - 1;
+        for (; index < count && result.size() < limit && startsWith(index, key); index++) {
+            result.add(new Suggestion(headword(index), gloss(index), 0));
+        }
+        return result;
+    }
+
+    /**
+     * Headwords within {@code maxEdits} insertions, deletions, substitutions or adjacent transpositions
+     * of {@code word}, closest first.
+     * <p>
+     * The sorted table is walked as an implicit trie (entries sharing a prefix are contiguous) while
+     * a Levenshtein automaton is simulated one row per byte; branches whose row minimum exceeds
+     * {@code maxEdits} are skipped whole, so only a small part of the index is touched.
+     * Edits are counted on UTF-8 bytes, which are characters for the English headwords.
+     */
+    public List<Suggestion> fuzzy(String word, int maxEdits, int limit) {
+        byte[] query = normalize(word).getBytes(StandardCharsets.UTF_8);
+        List<int[]> matches = new ArrayList<>(); // {index, distance}
+        if (query.length == 0 || count == 0) return List.of();
+
+        int[][] rows = new int[MAX_FUZZY_DEPTH + 2][query.length + 2];
+        for (int i = 0; i <= query.length; i++) rows[0][i] = Math.min(i, maxEdits + 1);
+        fuzzyWalk(query, maxEdits, 0, count, 0, rows, matches);
+
+        matches.sort((a, b) -> a[1] != b[1] ? a[1] - b[1]
+                : Math.abs(keyLength(a[0]) - query.length) != Math.abs(keyLength(b[0]) - query.length)
+                ? Math.abs(keyLength(a[0]) - query.length) - Math.abs(keyLength(b[0]) - query.length)
+                : a[0] - b[0]);
+        List<Suggestion> result = new ArrayList<>();
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            int index = matches.get(i)[0];
+            result.add(new Suggestion(headword(index), gloss(index), matches.get(i)[1]));
+        }
+        return result;
+    }
+
+    /**
+     * Instant suggestions for a partial or misspelled word: the exact entry, then completions, then near misses
+     */
+    public List<Suggestion> suggest(String word, int limit) {
+        Map<String, Suggestion> merged = new LinkedHashMap<>();
+        for (Suggestion s : prefix(word, limit)) merged.putIfAbsent(s.headword(), s);
+        for (Suggestion s : fuzzy(word, word.strip().length() <= 4 ? 1 : 2, limit)) merged.putIfAbsent(s.headword(), s);
+        List<Suggestion> result = new ArrayList<>(merged.values());
+        result.sort(Comparator.comparingInt(Suggestion::distance));
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    /**
+     * Visit the headwords in [lo, hi), which all share their first {@code depth} bytes;
+     * rows[depth] is the automaton state after consuming that shared prefix
+     */
+    private void fuzzyWalk(byte[] query, int maxEdits, int lo, int hi, int depth, int[][] rows, List<int[]> matches) {
+        int n = query.length;
+        // Sorting puts the headword that ends exactly here first
+        if (keyLength(lo) == depth) {
+            if (Math.abs(depth - n) <= maxEdits && rows[depth][n] <= maxEdits) matches.add(new int[]{lo, rows[depth][n]});
+            lo++;
+        }
+        if (depth > MAX_FUZZY_DEPTH || depth >= n + maxEdits || lo >= hi) return;
+
+        int previous = depth > 0 ? keyByte(lo, depth - 1) : -1;
+        if (hi - lo == 1) {
+            // A lone headword: finish its row by row without looking for more branches
+            int start = keyOffset(lo);
+            int length = glossOffset(lo) - start;
+            for (int d = depth; d < length; d++) {
+                int b = data.get(start + d) & 0xff;
+                if (d > MAX_FUZZY_DEPTH || step(query, maxEdits, rows, d, b, previous) > maxEdits) return;
+                previous = b;
+            }
+            if (Math.abs(length - n) <= maxEdits && rows[length][n] <= maxEdits) matches.add(new int[]{lo, rows[length][n]});
+            return;
+        }
+
+        if (step(query, maxEdits, rows, depth, NO_BYTE, previous) <= maxEdits) {
+            // Close to the root any next byte can still lead to a match: visit every branch
+            while (lo < hi) {
+                int b = keyByte(lo, depth);
+                int end = groupEnd(lo, hi, depth, b);
+                if (step(query, maxEdits, rows, depth, b, previous) <= maxEdits) {
+                    fuzzyWalk(query, maxEdits, lo, end, depth + 1, rows, matches);
+                }
+                lo = end;
+            }
+            return;
+        }
+
+        // Otherwise only bytes the query has near this position can keep the distance in range,
+        // so jump straight to those few branches
+        int from = Math.max(0, depth - maxEdits);
+        int to = Math.min(n, depth + maxEdits + 1);
+        int last = -1;
+        while (lo < hi) {
+            int b = NO_BYTE;
+            for (int i = from; i < to; i++) {
+                int c = query[i] & 0xff;
+                if (c > last && (b == NO_BYTE || c < b)) b = c;
+            }
+            if (b == NO_BYTE) return;
+            last = b;
+            lo = lowerBound(lo, hi, depth, b);
+            if (lo >= hi || keyByte(lo, depth) != b) continue;
+            int end = groupEnd(lo, hi, depth, b);
+            if (step(query, maxEdits, rows, depth, b, previous) <= maxEdits) {
+                fuzzyWalk(query, maxEdits, lo, end, depth + 1, rows, matches);
+            }
+            lo = end;
+        }
+    }
+
+    /**
+     * Advance the automaton from rows[depth] by byte {@code b} into rows[depth + 1]
+     * @return the smallest distance still reachable
+     */
+    private static int step(byte[] query, int maxEdits, int[][] rows, int depth, int b, int previous) {
+        int n = query.length;
+        int[] row = rows[depth];
+        int[] next = rows[depth + 1];
+        // Only cells within maxEdits of the diagonal can stay under the limit; the rest read as maxEdits + 1
+        int d = depth + 1;
+        int from = Math.max(1, d - maxEdits);
+        int to = Math.min(n, d + maxEdits);
+        next[from - 1] = from == 1 ? Math.min(d, maxEdits + 1) : maxEdits + 1;
+        if (to < n) next[to + 1] = maxEdits + 1;
+        int best = next[from - 1];
+        for (int i = from; i <= to; i++) {
+            int cost = (query[i - 1] & 0xff) == b ? 0 : 1;
+            int value = Math.min(Math.min(next[i - 1] + 1, row[i] + 1), row[i - 1] + cost);
+            if (i > 1 && (query[i - 1] & 0xff) == previous && (query[i - 2] & 0xff) == b) {
+                value = Math.min(value, rows[depth - 1][i - 2] + 1); // transposition
+            }
+            next[i] = value;
+            best = Math.min(best, value);
+        }
+        return best;
+    }
+
+    /**
+     * First index in [lo, hi) whose byte at {@code depth} is at least {@code b}
+     */
+    private int lowerBound(int lo, int hi, int depth, int b) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keyByte(mid, depth) < b) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * First index in (lo, hi) whose byte at {@code depth} is greater than {@code b}.
+     * Gallops from lo first, since deep in the walk most groups hold only a few entries.
+     */
+    private int groupEnd(int lo, int hi, int depth, int b) {
+        int l = lo + 1;
+        int step = 1;
+        while (l < hi && keyByte(l, depth) == b) {
+            l = lo + (step <<= 1);
+            if (l >= hi) {
+                l = hi;
+                break;
+            }
+        }
+        int h = l;
+        l = lo + Math.max(1, step >> 1);
+        while (l < h) {
+            int mid = (l + h) >>> 1;
+            if (keyByte(mid, depth) <= b) {
+                l = mid + 1;
+            } else {
+                h = mid;
+            }
+        }
+        return l;
+    }
+
+    private boolean startsWith(int index, byte[] prefix) {
+        if (keyLength(index) < prefix.length) return false;
+        int start = keyOffset(index);
+        for (int i = 0; i < prefix.length; i++) {
+            if (data.get(start + i) != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    private int keyLength(int index) {
+        return glossOffset(index) - keyOffset(index);
+    }
+
+    /**
+     * Byte {@code depth} of a headword, or -1 past its end
+     */
+    private int keyByte(int index, int depth) {
+        // Both offsets of an entry in one read: headword offset in the low half, gloss offset in the high half
+        long offsets = data.getLong(HEADER_SIZE + index * 8);
+        int start = (int) offsets;
+        return depth < (int) (offsets >>> 32) - start ? data.get(poolStart + start + depth) & 0xff : -1;
+    }
+
+    /**
+     * CRC32 of everything after the header, compared with the value recorded by the compiler
+     */
+    public boolean verify() {
+        CRC32 crc = new CRC32();
+        crc.update(data.slice(HEADER_SIZE, data.limit() - HEADER_SIZE));
+        return crc.getValue() == data.getLong(16);
+    }
+
+    private int keyOffset(int index) {
+        return poolStart + data.getInt(HEADER_SIZE + index * 8);
+    }
+
+    private int glossOffset(int index) {
+        return poolStart + data.getInt(HEADER_SIZE + index * 8 + 4);
+    }
+
+    private String string(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        data.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
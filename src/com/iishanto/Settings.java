@@ -0,0 +1,48 @@
+package com.iishanto;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Runtime settings, read from "-Diidict.*" system properties with sensible defaults
+ */
+public final class Settings {
+    private static final String PREFIX = "iidict.";
+
+    private Settings() {
+    }
+
+    public static String getString(String key, String def) {
+        String value = System.getProperty(PREFIX + key);
+        return value == null || value.isBlank() ? def : value.trim();
+    }
+
+    public static int getInt(String key, int def) {
+        try {
+            return Integer.parseInt(getString(key, String.valueOf(def)));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + PREFIX + key + ", using " + def);
+            return def;
+        }
+    }
+
+    public static long getLong(String key, long def) {
+        try {
+            return Long.parseLong(getString(key, String.valueOf(def)));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + PREFIX + key + ", using " + def);
+            return def;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean def) {
+        return Boolean.parseBoolean(getString(key, String.valueOf(def)));
+    }
+
+    /**
+     * Directory for files the app keeps between sessions (defaults to ~/.iidict)
+     */
+    public static Path getDataDir() {
+        return Paths.get(getString("dataDir", Paths.get(System.getProperty("user.home"), ".iidict").toString()));
+    }
+}
@@ -4,21 +4,24 @@ import java.io.InputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 public class Tools {
+    // Overridable to point translation and speech at a local stand-in server
+    static final String TTS_BASE_URL = Settings.getString("web.baseUrl", "https://translate.google.com");
     private static Tools tools=null;
     private final List<String> list=new ArrayList<>();
-    private final List<Event> events=new ArrayList<>();
-    String latest_translation="";
-    String latest_source="";  // Store source text separately
+    private final TranslationScheduler scheduler = new TranslationScheduler();
+    private final EventBus bus = EventBus.getInstance();
 
     // Language settings
     private String sourceLanguage = "auto";
     private String targetLanguage = "bn";
 
-    // Callback for translation start
-    private Event translationStartCallback = null;
-
     Tools(){
         System.out.println("Translator initialized with Google Translate API");
     }
@@ -31,10 +34,6 @@ public class Tools {
         this.targetLanguage = lang;
     }
 
-    public void setTranslationStartCallback(Event callback) {
-        this.translationStartCallback = callback;
-    }
-
     public String getTtsUrl(String text,String tl){
         String encodedText="";
         try{
@@ -42,7 +41,7 @@ public class Tools {
         }catch (Exception e){
             encodedText = "TextEncodingError";
         }
-        String ttsUrl = "https://translate.google.com/translate_tts?ie=UTF-8&q="
+        String ttsUrl = TTS_BASE_URL + "/translate_tts?ie=UTF-8&q="
                 + encodedText + "&tl="+tl+"&client=gtx";
         return ttsUrl;
     }
@@ -64,71 +63,148 @@ public class Tools {
     }
 
     String meaning(String upword){
-        try{
-            // Use Google Translate with the selected languages
-            String translation=GoogleTranslateClient.getInstance().translateList(upword, sourceLanguage, targetLanguage);
-            if(translation.isEmpty()){
-                return "Translation not available!";
-            }
-            // Decode HTML entities in the translation result
-            return decodeHtmlEntities(translation);
-        }catch(Exception e){
-            return "Translation error: " + e.getMessage();
-        }
+        return meaningAsync(upword).join();
     }
 
-    public void callEvent(String type){
-        if(type.equals("new_text")){
-            latest_translation="";
-            latest_source="";
-            String word= list.get(list.size() - 1);
-            word=word.trim();
-            // Decode HTML entities in source text
-            latest_source = decodeHtmlEntities(word);  // Store source separately
+    /**
+     * Translate with the selected languages; errors are reported as the translation text
+     */
+    CompletableFuture<String> meaningAsync(String upword){
+        return meaningAsync(upword, null);
+    }
 
-            // Notify translation started
-            if (translationStartCallback != null) {
-                translationStartCallback.event();
+    CompletableFuture<String> meaningAsync(String upword, Consumer<String> onPartial){
+        // "Running," and "running" share one dictionary headword and memory entry; Google still gets the text as copied
+        String key = lookupKey(upword);
+        // Single words and short phrases are answered from the offline dictionary when it has them
+        String offline = offlineMeaning(key);
+        if (offline != null) {
+            return CompletableFuture.completedFuture(offline);
+        }
+        Consumer<String> partial = onPartial == null ? null : text -> onPartial.accept(decodeHtmlEntities(text));
+        CompletableFuture<String> translation=GoogleTranslateClient.getInstance().translateAsync(upword, sourceLanguage, targetLanguage, partial);
+        CompletableFuture<String> result=translation.handle((text, e) -> {
+            if(e!=null){
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                return "Translation error: " + cause.getMessage();
+            }
+            if(text==null || text.isEmpty()){
+                return "Translation not available!";
             }
+            // Decode HTML entities in the translation result
+            String decoded = decodeHtmlEntities(text);
+            TranslationMemory.getInstance().put(key, sourceLanguage, targetLanguage, decoded);
+            return decoded;
+        });
+        // Cancelling the returned future aborts the underlying request
+        result.whenComplete((text, e) -> {
+            if (result.isCancelled()) translation.cancel(true);
+        });
+        return result;
+    }
 
-            // Run translation in background thread
-            final String textToTranslate = word;
-            new Thread(() -> {
-                try {
-                    latest_translation = meaning(textToTranslate);  // Store translation only (already decoded in meaning())
-                    if(latest_translation.isEmpty()) return;
-                    for(Event evt:events){
-                        evt.event();
-                    }
-                } catch (Exception e) {
-                    System.err.println("Translation error: " + e.getMessage());
-                    e.printStackTrace();
-                }
-            }).start();
-        }
+    private boolean offlineLanguages(){
+        return targetLanguage.equals("bn") && (sourceLanguage.equals("en") || sourceLanguage.equals("auto"));
     }
 
-    public String getLatestTranslation(){
-        return latest_translation;
+    /**
+     * Key for the offline dictionary and translation memory. For the dictionary's language pair, single words
+     * are folded to lowercase without surrounding punctuation and, when the dictionary has the lemma but not
+     * the inflected form, reduced to that lemma; anything else is left as it is
+     */
+    private String lookupKey(String upword){
+        if (!offlineLanguages()) return upword;
+        String word = Lemmatizer.fold(upword);
+        if (word == null) return upword;
+        OfflineDictionary dictionary = OfflineDictionary.getInstance();
+        return dictionary == null ? word : Lemmatizer.lemma(word, w -> dictionary.lookup(w) != null);
     }
 
-    public String getLatestSource(){
-        return latest_source;
+    private String offlineMeaning(String upword){
+        if (!offlineLanguages() || !OfflineDictionary.isLookupCandidate(upword)) return null;
+        OfflineDictionary dictionary = OfflineDictionary.getInstance();
+        return dictionary == null ? null : dictionary.lookup(upword);
     }
 
-    public String getLatestTranslationFormatted(){
-        return latest_source + ": " + latest_translation + "\n";
+    /**
+     * Offline completions and spelling corrections for a single (partial) word, without any network call
+     */
+    public List<OfflineDictionary.Suggestion> suggestions(String word, int limit){
+        String trimmed = word == null ? "" : word.strip();
+        if (!offlineLanguages() || trimmed.length() < 2 || trimmed.chars().anyMatch(Character::isWhitespace)) {
+            return Collections.emptyList();
+        }
+        OfflineDictionary dictionary = OfflineDictionary.getInstance();
+        return dictionary == null ? Collections.emptyList() : dictionary.suggest(trimmed, limit);
     }
 
-    public void regNewText(String s){
-        list.add(s);
-        if(list.size()>10){
-            list.remove(0);
+    /**
+     * Translate the latest registered text, publishing TranslationStarted, any TranslationProgress
+     * and finally TranslationCompleted on the event bus
+     */
+    public void callEvent(String type){
+        if(type.equals("new_text")){
+            long called = System.nanoTime();
+            String word;
+            synchronized (list) {
+                word = list.get(list.size() - 1).trim();
+            }
+            // Decode HTML entities in source text
+            String source = decodeHtmlEntities(word);
+            bus.publish(new TranslationEvent.TranslationStarted(source));
+
+            // A newer copy supersedes whatever is still being translated
+            CompletableFuture<String> translation = scheduler.submit(current -> {
+                // Long inputs show their leading paragraphs while the rest is still being translated;
+                // a partial reported by a slow batch thread after the job finished is dropped
+                CompletableFuture<Void> finished = new CompletableFuture<>();
+                CompletableFuture<String> job = meaningAsync(word, partial -> {
+                    if (current.getAsBoolean() && !finished.isDone()) bus.publish(new TranslationEvent.TranslationProgress(source, partial));
+                });
+                job.whenComplete((text, e) -> finished.complete(null));
+                // A similar earlier translation fills the panel until the real one arrives
+                if (!job.isDone()) {
+                    TranslationMemory.Match match = TranslationMemory.getInstance().closest(lookupKey(word), sourceLanguage, targetLanguage);
+                    if (match != null && !job.isDone() && current.getAsBoolean()) {
+                        FlightEvents.MemoryMatch event = new FlightEvents.MemoryMatch();
+                        if (event.shouldCommit()) {
+                            event.similarity = match.similarity();
+                            event.characters = word.length();
+                            event.commit();
+                        }
+                        bus.publish(new TranslationEvent.TranslationProgress(source, match.translation()));
+                    }
+                }
+                return job;
+            });
+            Metrics.record(Metrics.Phase.DISPATCH, called);
+            translation.whenComplete((text, e) -> {
+                if (!scheduler.isLatest(translation)) return;
+                Metrics.record(Metrics.Phase.TRANSLATION, called);
+                if (e instanceof TimeoutException) {
+                    System.err.println("Translation timed out");
+                    text = "Translation error: timed out";
+                } else if (e != null) {
+                    if (!(e instanceof CancellationException) && !(e.getCause() instanceof CancellationException)) {
+                        System.err.println("Translation error: " + e.getMessage());
+                        e.printStackTrace();
+                    }
+                    return;
+                }
+                // Already decoded in meaningAsync()
+                if(text.isEmpty()) return;
+                bus.publish(new TranslationEvent.TranslationCompleted(source, text));
+            });
         }
     }
 
-    public void addEvent(Event evt){
-        events.add(evt);
+    public void regNewText(String s){
+        synchronized (list) {
+            list.add(s);
+            if(list.size()>10){
+                list.remove(0);
+            }
+        }
     }
 
     public static Tools getConfig(){
@@ -140,45 +216,6 @@ public class Tools {
 
     // Decode HTML entities to proper characters
     public static String decodeHtmlEntities(String text) {
-        if (text == null || text.isEmpty()) {
-            return text;
-        }
-
-        // Decode common HTML entities
-        text = text.replace("&quot;", "\"");
-        text = text.replace("&apos;", "'");
-        text = text.replace("&lt;", "<");
-        text = text.replace("&gt;", ">");
-        text = text.replace("&amp;", "&");  // Must be last to avoid double-decoding
-        text = text.replace("&#39;", "'");
-        text = text.replace("&#34;", "\"");
-        text = text.replace("&nbsp;", " ");
-
-        // Decode numeric character references (e.g., &#8220; &#8221;)
-        while (text.contains("&#")) {
-            int start = text.indexOf("&#");
-            int end = text.indexOf(";", start);
-            if (end > start) {
-                try {
-                    String numStr = text.substring(start + 2, end);
-                    int charCode;
-                    if (numStr.startsWith("x") || numStr.startsWith("X")) {
-                        // Hexadecimal
-                        charCode = Integer.parseInt(numStr.substring(1), 16);
-                    } else {
-                        // Decimal
-                        charCode = Integer.parseInt(numStr);
-                    }
-                    char decodedChar = (char) charCode;
-                    text = text.substring(0, start) + decodedChar + text.substring(end + 1);
-                } catch (NumberFormatException e) {
-                    break; // Invalid format, stop trying
-                }
-            } else {
-                break;
-            }
-        }
-
-        return text;
+        return HtmlEntityDecoder.decode(text);
     }
 }
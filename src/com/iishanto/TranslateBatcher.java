@@ -0,0 +1,214 @@
+package com.iishanto;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Collects paragraphs submitted within a short window and sends them as one translateHtml request
+ * per language pair, then hands each caller its own slice of the response.
+ */
+public class TranslateBatcher {
+    /**
+     * Sends one batch of encoded paragraphs, reporting each translation by its index as soon as it is read.
+     * The returned future completes once the whole response has been consumed.
+     */
+    public interface Sender {
+        CompletableFuture<Void> send(List<String> paragraphs, String sl, String tl, BiConsumer<Integer, String> onParagraph);
+    }
+
+    private final Sender sender;
+    private final long windowMillis;
+    private final int maxParagraphs;
+    private final int maxChars;
+    private final int maxConcurrent;
+    private final Map<String, Batch> open = new HashMap<>();
+    private final Deque<Batch> waiting = new ArrayDeque<>();
+    private int running = 0;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "TranslateBatcher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public TranslateBatcher(Sender sender) {
+        this(sender,
+                Settings.getLong("batch.windowMillis", 10),
+                Settings.getInt("batch.maxParagraphs", 128),
+                Settings.getInt("batch.maxChars", 16_000),
+                Settings.getInt("batch.maxConcurrent", 4));
+    }
+
+    public TranslateBatcher(Sender sender, long windowMillis, int maxParagraphs, int maxChars, int maxConcurrent) {
+        this.sender = sender;
+        this.windowMillis = windowMillis;
+        this.maxParagraphs = Math.max(1, maxParagraphs);
+        this.maxChars = Math.max(1, maxChars);
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+    }
+
+    /**
+     * Queue paragraphs for translation; each future is completed with its paragraph's translation
+     * as soon as it arrives (or null if the response was short). Futures cancelled before their batch is sent are dropped.
+     */
+    public void submit(String sl, String tl, List<String> paragraphs, List<CompletableFuture<String>> results) {
+        List<Batch> full = new ArrayList<>();
+        synchronized (this) {
+            String key = sl + '\u0001' + tl;
+            for (int i = 0; i < paragraphs.size(); i++) {
+                Batch batch = open.get(key);
+                String paragraph = paragraphs.get(i);
+                if (batch != null && !batch.fits(paragraph)) {
+                    open.remove(key);
+                    full.add(batch);
+                    batch = null;
+                }
+                if (batch == null) {
+                    batch = new Batch(sl, tl);
+                    open.put(key, batch);
+                    if (windowMillis > 0) {
+                        Batch scheduled = batch;
+                        timer.schedule(() -> flush(key, scheduled), windowMillis, TimeUnit.MILLISECONDS);
+                    }
+                }
+                batch.add(paragraph, results.get(i));
+                if (batch.isFull()) {
+                    open.remove(key);
+                    full.add(batch);
+                }
+            }
+            if (windowMillis <= 0) {
+                // No window: everything submitted together still goes out together
+                full.addAll(open.values());
+                open.clear();
+            }
+        }
+        for (Batch batch : full) {
+            dispatch(batch);
+        }
+    }
+
+    private void flush(String key, Batch batch) {
+        synchronized (this) {
+            if (open.get(key) != batch) return;
+            open.remove(key);
+        }
+        dispatch(batch);
+    }
+
+    /**
+     * Send now if fewer than maxConcurrent requests are running, otherwise queue in arrival order
+     * so the leading chunks of a large input go out first
+     */
+    private void dispatch(Batch batch) {
+        synchronized (this) {
+            if (running >= maxConcurrent) {
+                waiting.addLast(batch);
+                return;
+            }
+            running++;
+        }
+        start(batch);
+    }
+
+    private void start(Batch batch) {
+        while (batch != null) {
+            CompletableFuture<Void> exchange = send(batch);
+            if (exchange != null) {
+                // Async so a chain of already-completed exchanges cannot recurse
+                exchange.whenCompleteAsync((v, ex) -> start(finished()), timer);
+                return;
+            }
+            batch = finished();
+        }
+    }
+
+    /**
+     * Release the slot of a finished request and take the next waiting batch, keeping the slot if there is one
+     */
+    private synchronized Batch finished() {
+        Batch next = waiting.pollFirst();
+        if (next == null) running--;
+        return next;
+    }
+
+    /**
+     * @return the running exchange, or null if nothing was sent
+     */
+    private CompletableFuture<Void> send(Batch batch) {
+        List<String> paragraphs = new ArrayList<>();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < batch.paragraphs.size(); i++) {
+            if (batch.results.get(i).isDone()) continue; // cancelled while waiting
+            paragraphs.add(batch.paragraphs.get(i));
+            results.add(batch.results.get(i));
+        }
+        if (paragraphs.isEmpty()) return null;
+
+        CompletableFuture<Void> exchange;
+        try {
+            exchange = sender.send(paragraphs, batch.sl, batch.tl, (i, translated) -> {
+                if (i < results.size()) results.get(i).complete(translated);
+            });
+        } catch (RuntimeException e) {
+            results.forEach(r -> r.completeExceptionally(e));
+            return null;
+        }
+
+        // Abort the request only once every caller waiting on it has gone away
+        AtomicInteger live = new AtomicInteger(results.size());
+        for (CompletableFuture<String> result : results) {
+            result.whenComplete((r, ex) -> {
+                if (result.isCancelled() && live.decrementAndGet() == 0) exchange.cancel(true);
+            });
+        }
+
+        // Anything the response did not cover is failed or left untranslated
+        exchange.whenComplete((v, ex) -> {
+            for (CompletableFuture<String> result : results) {
+                if (ex != null) {
+                    result.completeExceptionally(ex);
+                } else {
+                    result.complete(null);
+                }
+            }
+        });
+        return exchange;
+    }
+
+    private final class Batch {
+        final String sl;
+        final String tl;
+        final List<String> paragraphs = new ArrayList<>();
+        final List<CompletableFuture<String>> results = new ArrayList<>();
+        int chars = 0;
+
+        Batch(String sl, String tl) {
+            this.sl = sl;
+            this.tl = tl;
+        }
+
+        boolean fits(String paragraph) {
+            return paragraphs.size() < maxParagraphs && chars + paragraph.length() <= maxChars;
+        }
+
+        boolean isFull() {
+            return paragraphs.size() >= maxParagraphs || chars >= maxChars;
+        }
+
+        void add(String paragraph, CompletableFuture<String> result) {
+            paragraphs.add(paragraph);
+            results.add(result);
+            chars += paragraph.length();
+        }
+    }
+}
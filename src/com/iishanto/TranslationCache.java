@@ -0,0 +1,174 @@
+package com.iishanto;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe in-memory translation cache.
+ * Keys are spread over independently locked segments; each segment evicts in
+ * least-recently-used order once its share of the weight budget (approximate
+ * bytes of key + value) is exceeded. Hit, miss and eviction counts are published by {@link Metrics}.
+ */
+public class TranslationCache implements TranslationCacheMBean {
+    // Rough per-entry cost of the map node, the two String headers and their arrays
+    private static final int ENTRY_OVERHEAD = 96;
+    private static final int SEGMENTS = 16;
+
+    private static final TranslationCache instance = new TranslationCache(
+            Settings.getLong("cache.maxBytes", 16L * 1024 * 1024));
+
+    private final long maxWeight;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    TranslationCache(long maxWeight) {
+        this.maxWeight = maxWeight;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(maxWeight / SEGMENTS);
+        }
+    }
+
+    public static TranslationCache getInstance() {
+        return instance;
+    }
+
+    static String key(String sl, String tl, String paragraph) {
+        return TranslationStore.key(sl, tl, paragraph);
+    }
+
+    static long weigh(String key, String value) {
+        return ENTRY_OVERHEAD + 2L * (key.length() + value.length());
+    }
+
+    static int segmentIndex(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (SEGMENTS - 1);
+    }
+
+    private Segment segmentFor(String key) {
+        return segments[segmentIndex(key)];
+    }
+
+    public String get(String sl, String tl, String paragraph) {
+        String key = key(sl, tl, paragraph);
+        String value = segmentFor(key).get(key);
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    public void put(String sl, String tl, String paragraph, String translation) {
+        if (translation == null) return;
+        String key = key(sl, tl, paragraph);
+        evictions.add(segmentFor(key).put(key, translation));
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public Stats stats() {
+        int size = 0;
+        long weight = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+                weight += segment.weight;
+            }
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size, weight, maxWeight);
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        return stats().hitRate();
+    }
+
+    @Override
+    public int getSize() {
+        return stats().size();
+    }
+
+    @Override
+    public long getWeightBytes() {
+        return stats().weight();
+    }
+
+    @Override
+    public long getMaxWeightBytes() {
+        return maxWeight;
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size, long weight, long maxWeight) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    private static final class Segment {
+        private final long maxWeight;
+        private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long weight = 0;
+
+        Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        synchronized String get(String key) {
+            return entries.get(key);
+        }
+
+        /**
+         * @return number of entries evicted to make room
+         */
+        synchronized int put(String key, String value) {
+            long entryWeight = weigh(key, value);
+            if (entryWeight > maxWeight) return 0;
+
+            String old = entries.put(key, value);
+            if (old != null) weight -= weigh(key, old);
+            weight += entryWeight;
+
+            int evicted = 0;
+            Iterator<Map.Entry<String, String>> it = entries.entrySet().iterator();
+            while (weight > maxWeight && it.hasNext()) {
+                Map.Entry<String, String> eldest = it.next();
+                weight -= weigh(eldest.getKey(), eldest.getValue());
+                it.remove();
+                evicted++;
+            }
+            return evicted;
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            weight = 0;
+        }
+    }
+}
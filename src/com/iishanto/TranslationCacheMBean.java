@@ -0,0 +1,22 @@
+package com.iishanto;
+
+/**
+ * JMX view of the in-memory {@link TranslationCache}, registered as {@code com.iishanto:type=Cache,name=translation}
+ */
+public interface TranslationCacheMBean {
+    long getHits();
+
+    long getMisses();
+
+    long getEvictions();
+
+    double getHitRate();
+
+    int getSize();
+
+    long getWeightBytes();
+
+    long getMaxWeightBytes();
+
+    void clear();
+}
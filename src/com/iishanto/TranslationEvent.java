@@ -0,0 +1,31 @@
+package com.iishanto;
+
+/**
+ * Immutable events published on the {@link EventBus} as clipboard text is picked up and translated.
+ */
+public sealed interface TranslationEvent {
+
+    /**
+     * New text was read from the system clipboard
+     */
+    record ClipboardChanged(String text) implements TranslationEvent {
+    }
+
+    /**
+     * Translation of {@code source} has begun
+     */
+    record TranslationStarted(String source) implements TranslationEvent {
+    }
+
+    /**
+     * A provisional translation: the leading paragraphs of a long text or a similar earlier translation
+     */
+    record TranslationProgress(String source, String partial) implements TranslationEvent {
+    }
+
+    record TranslationCompleted(String source, String translation) implements TranslationEvent {
+        public String formatted() {
+            return source + ": " + translation + "\n";
+        }
+    }
+}
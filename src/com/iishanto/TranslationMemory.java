@@ -0,0 +1,255 @@
+package com.iishanto;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers earlier translations and finds the one whose source is most similar to a new text,
+ * so near-identical sentences (templated strings, log lines) get an answer before the network does.
+ * <p>
+ * Sources are compared by their character trigrams: a MinHash signature with LSH banding narrows the
+ * search to a few candidates, which are then scored by exact Jaccard similarity.
+ */
+public class TranslationMemory {
+    private static final int HASHES = 64;
+    private static final int ROWS = 4;
+    private static final int BANDS = HASHES / ROWS;
+    private static final int SHINGLE = 3;
+    // MinHash estimates with 64 hashes are within about 0.15 of the true similarity
+    private static final double ESTIMATE_SLACK = 0.15;
+    private static TranslationMemory instance = null;
+
+    public record Match(String source, String translation, double similarity) {
+    }
+
+    private final int maxEntries;
+    private final int maxChars;
+    private final double threshold;
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private final Map<String, Entry> bySource = new HashMap<>();
+    private final Map<Long, List<Entry>> buckets = new HashMap<>();
+
+    TranslationMemory(int maxEntries, int maxChars, double threshold) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxChars = maxChars;
+        this.threshold = threshold;
+    }
+
+    public static synchronized TranslationMemory getInstance() {
+        if (instance == null) {
+            instance = new TranslationMemory(
+                    Settings.getInt("memory.maxEntries", 10_000),
+                    Settings.getInt("memory.maxChars", 4_000),
+                    Settings.getInt("memory.thresholdPercent", 75) / 100.0);
+        }
+        return instance;
+    }
+
+    /**
+     * @return the most similar remembered translation for the same language pair at or above the threshold, or null
+     */
+    public synchronized Match closest(String text, String sl, String tl) {
+        if (text == null || text.length() > maxChars || entries.isEmpty()) return null;
+        String source = normalize(text);
+        int[] shingles = shingles(source);
+        if (shingles.length == 0) return null;
+        int[] signature = signature(shingles);
+        long pair = pairHash(sl, tl);
+
+        Map<Entry, Boolean> seen = new IdentityHashMap<>();
+        Entry best = null;
+        double bestScore = threshold;
+        for (int band = 0; band < BANDS; band++) {
+            List<Entry> bucket = buckets.get(bandKey(signature, band, pair));
+            if (bucket == null) continue;
+            for (Entry entry : bucket) {
+                if (seen.put(entry, Boolean.TRUE) != null || !entry.sl.equals(sl) || !entry.tl.equals(tl)) continue;
+                // Cheap bounds first: set sizes cap the similarity, and the signatures estimate it
+                int small = Math.min(shingles.length, entry.shingles.length);
+                int large = Math.max(shingles.length, entry.shingles.length);
+                if ((double) small / large < bestScore) continue;
+                if (estimate(signature, entry.signature) < bestScore - ESTIMATE_SLACK) continue;
+                double score = jaccard(shingles, entry.shingles);
+                if (score >= bestScore) {
+                    best = entry;
+                    bestScore = score;
+                }
+            }
+        }
+        return best == null ? null : new Match(best.source, best.translation, bestScore);
+    }
+
+    /**
+     * Remember a finished translation; the oldest entries are forgotten once the memory is full
+     */
+    public synchronized void put(String text, String sl, String tl, String translation) {
+        if (text == null || translation == null || text.length() > maxChars) return;
+        String source = normalize(text);
+        int[] shingles = shingles(source);
+        if (shingles.length == 0) return;
+
+        String id = TranslationStore.key(sl, tl, source);
+        Entry existing = bySource.get(id);
+        if (existing != null) {
+            if (existing.translation.equals(translation)) return;
+            bySource.remove(id);
+            remove(existing);
+        }
+
+        Entry entry = new Entry(id, source, sl, tl, translation, shingles, signature(shingles));
+        long pair = pairHash(sl, tl);
+        for (int band = 0; band < BANDS; band++) {
+            entry.bandKeys[band] = bandKey(entry.signature, band, pair);
+            buckets.computeIfAbsent(entry.bandKeys[band], k -> new ArrayList<>(2)).add(entry);
+        }
+        entries.addLast(entry);
+        bySource.put(id, entry);
+        while (entries.size() > maxEntries) {
+            Entry oldest = entries.pollFirst();
+            bySource.remove(oldest.id);
+            unindex(oldest);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry);
+        unindex(entry);
+    }
+
+    private void unindex(Entry entry) {
+        for (long key : entry.bandKeys) {
+            List<Entry> bucket = buckets.get(key);
+            if (bucket == null) continue;
+            bucket.remove(entry);
+            if (bucket.isEmpty()) buckets.remove(key);
+        }
+    }
+
+    private static String normalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+            } else {
+                if (space) sb.append(' ');
+                space = false;
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Sorted distinct hashes of the character trigrams; texts shorter than a trigram count as one shingle
+     */
+    static int[] shingles(String source) {
+        if (source.isEmpty()) return new int[0];
+        if (source.length() < SHINGLE) return new int[]{mix(source.hashCode())};
+        int[] hashes = new int[source.length() - SHINGLE + 1];
+        for (int i = 0; i < hashes.length; i++) {
+            int h = 0;
+            for (int j = i; j < i + SHINGLE; j++) {
+                h = 31 * h + source.charAt(j);
+            }
+            hashes[i] = mix(h);
+        }
+        Arrays.sort(hashes);
+        int n = 1;
+        for (int i = 1; i < hashes.length; i++) {
+            if (hashes[i] != hashes[n - 1]) hashes[n++] = hashes[i];
+        }
+        return n == hashes.length ? hashes : Arrays.copyOf(hashes, n);
+    }
+
+    private static int[] signature(int[] shingles) {
+        int[] signature = new int[HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int shingle : shingles) {
+            for (int i = 0; i < HASHES; i++) {
+                int h = mix(shingle ^ (i * 0x9E3779B9));
+                if (h < signature[i]) signature[i] = h;
+            }
+        }
+        return signature;
+    }
+
+    private static long bandKey(int[] signature, int band, long pair) {
+        long h = pair ^ band;
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i++) {
+            h = h * 0x100000001B3L + signature[i];
+        }
+        return h;
+    }
+
+    private static long pairHash(String sl, String tl) {
+        return (long) sl.hashCode() * 31 + tl.hashCode();
+    }
+
+    private static double estimate(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (a[i] == b[i]) same++;
+        }
+        return (double) same / HASHES;
+    }
+
+    static double jaccard(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        int common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) common / (a.length + b.length - common);
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static final class Entry {
+        final String id;
+        final String source;
+        final String sl;
+        final String tl;
+        final String translation;
+        final int[] shingles;
+        final int[] signature;
+        final long[] bandKeys = new long[BANDS];
+
+        Entry(String id, String source, String sl, String tl, String translation, int[] shingles, int[] signature) {
+            this.id = id;
+            this.source = source;
+            this.sl = sl;
+            this.tl = tl;
+            this.translation = translation;
+            this.shingles = shingles;
+            this.signature = signature;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.iishanto;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Runs clipboard translations on virtual threads where only the newest one matters: submitting a job
+ * cancels the previous one, at most maxConcurrent jobs are in flight and each is given a deadline.
+ */
+public class TranslationScheduler {
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("TranslationScheduler-", 0).factory());
+    private final AtomicReference<CompletableFuture<?>> latest = new AtomicReference<>();
+    private final Semaphore slots;
+    private final long timeoutMillis;
+
+    public TranslationScheduler() {
+        this(Settings.getInt("scheduler.maxConcurrent", 2), Settings.getLong("scheduler.timeoutMillis", 30_000));
+    }
+
+    public TranslationScheduler(int maxConcurrent, long timeoutMillis) {
+        this.slots = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Supersede any earlier job and start this one once a slot is free.
+     * The job is given a check that stays true while it is still the latest submission.
+     * @return completes with the job's result, is cancelled when superseded and fails with a TimeoutException past the deadline
+     */
+    public <T> CompletableFuture<T> submit(Function<BooleanSupplier, CompletableFuture<T>> job) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<?> previous = latest.getAndSet(result);
+        if (previous != null) previous.cancel(true);
+        if (timeoutMillis > 0) result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        executor.execute(() -> run(job, result));
+        return result;
+    }
+
+    public boolean isLatest(CompletableFuture<?> result) {
+        return latest.get() == result;
+    }
+
+    private <T> void run(Function<BooleanSupplier, CompletableFuture<T>> job, CompletableFuture<T> result) {
+        if (result.isDone()) return; // superseded before it started
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            return;
+        }
+        result.whenComplete((v, e) -> slots.release());
+        if (result.isDone()) return; // superseded while waiting for a slot
+
+        CompletableFuture<T> work;
+        try {
+            work = job.apply(() -> isLatest(result));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        // Superseded or timed out: stop the underlying work; otherwise pass its outcome on
+        result.whenComplete((v, e) -> {
+            if (!work.isDone()) work.cancel(true);
+        });
+        work.whenComplete((v, e) -> {
+            if (e != null) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete(v);
+            }
+        });
+    }
+}
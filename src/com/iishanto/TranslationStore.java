@@ -0,0 +1,259 @@
+package com.iishanto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Persistent translation cache kept in a memory-mapped, append-only file.
+ * Records are [keyLength][valueLength][key][value] in UTF-8, keyed by source language,
+ * target language and the encoded paragraph. The file is only opened on first use.
+ * <p>
+ * Only a table of 64-bit key hashes and record offsets lives on the heap; keys are compared and values read
+ * in the file. Records appended since the file was mapped are read with positional reads until the
+ * unmapped tail is large enough to be worth mapping again.
+ * <p>
+ * The file is never shrunk while mapped (Windows refuses to truncate a mapped file): every record is followed
+ * by an end marker that the next append overwrites, so a torn tail is marked as free space and reused instead.
+ * <p>
+ * There is no eviction or compaction: once the file reaches {@code iidict.store.maxBytes}, new translations
+ * are no longer persisted (they are still cached in memory). Deleting the file starts a new one.
+ */
+public class TranslationStore {
+    private static final int MAGIC = 0x49494443; // "IIDC"
+    // 2: paragraphs are keyed in their HTML-escaped form (FormattingCodec); older files are discarded
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 8;
+    private static final char KEY_SEPARATOR = '\u0001';
+    private static final int END_OF_RECORDS = -1; // in place of a key length
+    private static final long REMAP_BYTES = 1024 * 1024;
+    private static final int INITIAL_SLOTS = 1024;
+
+    private static final TranslationStore instance = new TranslationStore(
+            Settings.getDataDir().resolve("translation-cache.bin"),
+            Settings.getLong("store.maxBytes", 64L * 1024 * 1024));
+
+    private final Path file;
+    private final long maxBytes;
+    // Open addressing table of key hash -> record offset; hash 0 marks an empty slot
+    private long[] hashes;
+    private int[] offsets;
+    private int count;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private long fileSize;
+    private boolean loaded = false;
+    private boolean disabled = false;
+
+    TranslationStore(Path file, long maxBytes) {
+        this.file = file;
+        this.maxBytes = Math.min(maxBytes, Integer.MAX_VALUE);
+    }
+
+    public static TranslationStore getInstance() {
+        return instance;
+    }
+
+    static String key(String sl, String tl, String paragraph) {
+        return sl + KEY_SEPARATOR + tl + KEY_SEPARATOR + paragraph;
+    }
+
+    public synchronized String get(String sl, String tl, String paragraph) {
+        if (!ensureLoaded()) return null;
+        byte[] k = key(sl, tl, paragraph).getBytes(StandardCharsets.UTF_8);
+        try {
+            if (fileSize - mapped.limit() > REMAP_BYTES) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            }
+            int offset = find(k, hash(k));
+            if (offset < 0) return null;
+            int valueLength = read(offset + 4L, 4).getInt();
+            return StandardCharsets.UTF_8.decode(read(offset + 8L + k.length, valueLength)).toString();
+        } catch (IOException e) {
+            System.err.println("Translation store read failed: " + e.getMessage());
+            disable();
+            return null;
+        }
+    }
+
+    public synchronized void put(String sl, String tl, String paragraph, String translation) {
+        if (translation == null || !ensureLoaded()) return;
+        byte[] k = key(sl, tl, paragraph).getBytes(StandardCharsets.UTF_8);
+        byte[] v = translation.getBytes(StandardCharsets.UTF_8);
+        long recordSize = 8L + k.length + v.length;
+        if (fileSize + recordSize + 4 > maxBytes) return;
+
+        try {
+            long hash = hash(k);
+            if (find(k, hash) >= 0) return;
+            ByteBuffer record = ByteBuffer.allocate((int) recordSize + 4);
+            record.putInt(k.length).putInt(v.length).put(k).put(v).putInt(END_OF_RECORDS).flip();
+            long position = fileSize;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            add(hash, (int) fileSize);
+            // The marker stays outside the records, to be overwritten by the next one
+            fileSize += recordSize;
+        } catch (IOException e) {
+            System.err.println("Translation store write failed: " + e.getMessage());
+            disable();
+        }
+    }
+
+    public synchronized int size() {
+        return ensureLoaded() ? count : 0;
+    }
+
+    public synchronized void close() {
+        disable();
+    }
+
+    private boolean ensureLoaded() {
+        if (loaded) return true;
+        if (disabled) return false;
+        try {
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            fileSize = channel.size();
+            if (fileSize < HEADER_SIZE || !hasValidHeader()) {
+                channel.truncate(0);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+                channel.write(header, 0);
+                fileSize = HEADER_SIZE;
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            hashes = new long[INITIAL_SLOTS];
+            offsets = new int[INITIAL_SLOTS];
+            count = 0;
+            scanRecords();
+            loaded = true;
+            System.out.println("Translation store loaded: " + count + " entries");
+            return true;
+        } catch (IOException e) {
+            System.err.println("Translation store unavailable: " + e.getMessage());
+            disable();
+            return false;
+        }
+    }
+
+    private boolean hasValidHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        return header.getInt() == MAGIC && header.getInt() == VERSION;
+    }
+
+    /**
+     * Index the record offsets up to the end marker, hashing keys in place. A torn record at the tail
+     * (e.g. after a crash) is dropped: an end marker is written over it and appends continue from there.
+     */
+    private void scanRecords() throws IOException {
+        int pos = HEADER_SIZE;
+        int limit = mapped.limit();
+        while (pos + 8 <= limit) {
+            int keyLength = mapped.getInt(pos);
+            int valueLength = mapped.getInt(pos + 4);
+            if (keyLength < 0 || valueLength < 0 || (long) pos + 8 + keyLength + valueLength > limit) break;
+            add(hash(mapped, pos + 8, keyLength), pos);
+            pos += 8 + keyLength + valueLength;
+        }
+        boolean marked = pos + 4 <= limit && mapped.getInt(pos) == END_OF_RECORDS;
+        if (pos < fileSize && !marked) {
+            ByteBuffer marker = ByteBuffer.allocate(4).putInt(END_OF_RECORDS).flip();
+            while (marker.hasRemaining()) {
+                channel.write(marker, pos + marker.position());
+            }
+        }
+        fileSize = pos;
+    }
+
+    /**
+     * @return the offset of the record with this key, or -1
+     */
+    private int find(byte[] k, long hash) throws IOException {
+        int mask = hashes.length - 1;
+        for (int slot = (int) hash & mask; hashes[slot] != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] != hash) continue;
+            int offset = offsets[slot];
+            if (read(offset, 4).getInt() == k.length && read(offset + 8L, k.length).equals(ByteBuffer.wrap(k))) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    private void add(long hash, int offset) {
+        if (2 * (count + 1) > hashes.length) {
+            long[] oldHashes = hashes;
+            int[] oldOffsets = offsets;
+            hashes = new long[oldHashes.length * 2];
+            offsets = new int[oldHashes.length * 2];
+            for (int i = 0; i < oldHashes.length; i++) {
+                if (oldHashes[i] != 0) insert(oldHashes[i], oldOffsets[i]);
+            }
+        }
+        insert(hash, offset);
+        count++;
+    }
+
+    private void insert(long hash, int offset) {
+        int mask = hashes.length - 1;
+        int slot = (int) hash & mask;
+        while (hashes[slot] != 0) slot = (slot + 1) & mask;
+        hashes[slot] = hash;
+        offsets[slot] = offset;
+    }
+
+    /**
+     * Bytes of the file at {@code offset}, from the mapping or, past its end, read from the channel
+     */
+    private ByteBuffer read(long offset, int length) throws IOException {
+        if (offset + length <= mapped.limit()) return mapped.slice((int) offset, length);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) throw new IOException("Unexpected end of file");
+        }
+        return buffer.flip();
+    }
+
+    private static long hash(byte[] k) {
+        return hash(ByteBuffer.wrap(k), 0, k.length);
+    }
+
+    /**
+     * FNV-1a over the key bytes with a final mix; never 0, which marks an empty slot
+     */
+    private static long hash(ByteBuffer buffer, int offset, int length) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = offset; i < offset + length; i++) {
+            h = (h ^ (buffer.get(i) & 0xFF)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    private void disable() {
+        disabled = true;
+        loaded = false;
+        hashes = null;
+        offsets = null;
+        count = 0;
+        mapped = null;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+            channel = null;
+        }
+    }
+}
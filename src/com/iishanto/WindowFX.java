@@ -4,6 +4,7 @@ import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.geometry.Side;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.input.KeyCode;
@@ -42,6 +43,7 @@ public class WindowFX extends Application {
     private Button wrapButton;
     private boolean isWrapEnabled = false;
     private Button translateButton;
+    private ContextMenu suggestionMenu;
     private Polygon triangleIcon;
     private Arc spinnerIcon;
     private RotateTransition spinnerAnimation;
@@ -269,12 +271,22 @@ public class WindowFX extends Application {
 
                 if (fontFiles != null) {
                     for (java.io.File fontFile : fontFiles) {
-                        try {
-                            Font.loadFont(new java.io.FileInputStream(fontFile), 14);
+                        FlightEvents.FontLoad event = new FlightEvents.FontLoad();
+                        event.begin();
+                        Font font = null;
+                        try (java.io.InputStream in = new java.io.FileInputStream(fontFile)) {
+                            font = Font.loadFont(in, 14);
                             System.out.println("  Loaded: " + fontFile.getName());
                         } catch (Exception e) {
                             // Silently skip fonts that can't be loaded
                         }
+                        event.end();
+                        if (event.shouldCommit()) {
+                            event.file = fontFile.getPath();
+                            event.family = font == null ? null : font.getFamily();
+                            event.loaded = font != null;
+                            event.commit();
+                        }
                     }
                 }
             }
@@ -506,6 +518,15 @@ public class WindowFX extends Application {
 
             // Update speak button visibility when text changes
             textArea.textProperty().addListener((obs, oldText, newText) -> updateSpeakButtonVisibility());
+
+            // Offer offline dictionary suggestions while a single word is being typed
+            suggestionMenu = new ContextMenu();
+            textArea.textProperty().addListener((obs, oldText, newText) -> {
+                if (textArea.isFocused()) updateSuggestions(newText);
+            });
+            textArea.focusedProperty().addListener((obs, wasFocused, focused) -> {
+                if (!focused) suggestionMenu.hide();
+            });
         } else {
             translationTextArea = textArea;
             textArea.setEditable(false);
@@ -519,6 +540,32 @@ public class WindowFX extends Application {
         return panel;
     }
 
+    /**
+     * Show completions and near matches from the offline dictionary below the source text
+     */
+    private void updateSuggestions(String text) {
+        List<OfflineDictionary.Suggestion> suggestions = Tools.getConfig().suggestions(text, 8);
+        if (suggestions.isEmpty()) {
+            suggestionMenu.hide();
+            return;
+        }
+
+        List<MenuItem> items = new ArrayList<>();
+        for (OfflineDictionary.Suggestion suggestion : suggestions) {
+            MenuItem item = new MenuItem(suggestion.headword() + "  —  " + suggestion.gloss());
+            item.setOnAction(e -> {
+                sourceTextArea.setText(suggestion.headword());
+                translationTextArea.setText(suggestion.gloss());
+                suggestionMenu.hide();
+            });
+            items.add(item);
+        }
+        suggestionMenu.getItems().setAll(items);
+        if (!suggestionMenu.isShowing()) {
+            suggestionMenu.show(sourceTextArea, Side.BOTTOM, 0, -sourceTextArea.getHeight() + 32);
+        }
+    }
+
     /**
      * Update speak button visibility based on language selection and text content
      */
@@ -784,38 +831,59 @@ public class WindowFX extends Application {
     }
 
     private void setupEventHandlers() {
-        // Register translation start callback
-        Tools.getConfig().setTranslationStartCallback(() -> {
-            // This runs when translation starts (on background thread)
-            Platform.runLater(this::showSpinner);
+        // Source of the last completed translation; only touched by the subscriber, which gets events one at a time
+        String[] completedSource = {null};
+        // One subscription keeps started, progress and completed updates in publishing order
+        EventBus.getInstance().subscribe(TranslationEvent.class, event -> {
+            switch (event) {
+                case TranslationEvent.TranslationStarted started -> {
+                    completedSource[0] = null;
+                    Platform.runLater(this::showSpinner);
+                }
+                // Show the leading part of a long translation while the rest is still in flight,
+                // but never replace the full translation with a partial that arrived after it
+                case TranslationEvent.TranslationProgress progress -> {
+                    if (progress.source().equals(completedSource[0])) return;
+                    Platform.runLater(() -> {
+                        sourceTextArea.setText(progress.source());
+                        translationTextArea.setText(progress.partial());
+                    });
+                }
+                case TranslationEvent.TranslationCompleted completed -> {
+                    completedSource[0] = completed.source();
+                    showTranslation(completed);
+                }
+                case TranslationEvent.ClipboardChanged changed -> {
+                }
+            }
         });
+    }
 
-        Tools.getConfig().addEvent(() -> {
-            // Get source and translation separately
-            String source = Tools.getConfig().getLatestSource();
-            String translation = Tools.getConfig().getLatestTranslation();
-
-            if (source != null && !source.isEmpty() && translation != null && !translation.isEmpty()) {
-                // Update UI on JavaFX thread
-                Platform.runLater(() -> {
-                    sourceTextArea.setText(source);
-                    translationTextArea.setText(translation);
-
-                    // Add formatted version to history
-                    String historyEntry = Tools.getConfig().getLatestTranslationFormatted();
-                    translationHistory.add(historyEntry);
-                    if (translationHistory.size() > 50) {
-                        translationHistory.remove(0);
-                    }
+    private void showTranslation(TranslationEvent.TranslationCompleted completed) {
+        String source = completed.source();
+        String translation = completed.translation();
+
+        if (source != null && !source.isEmpty() && translation != null && !translation.isEmpty()) {
+            long received = System.nanoTime();
+            // Update UI on JavaFX thread
+            Platform.runLater(() -> {
+                sourceTextArea.setText(source);
+                translationTextArea.setText(translation);
+
+                // Add formatted version to history
+                translationHistory.add(completed.formatted());
+                if (translationHistory.size() > 50) {
+                    translationHistory.remove(0);
+                }
 
-                    // Hide spinner when translation is complete
-                    hideSpinner();
+                // Hide spinner when translation is complete
+                hideSpinner();
 
-                    // Update speak button visibility after translation
-                    updateSpeakButtonVisibility();
-                });
-            }
-        });
+                // Update speak button visibility after translation
+                updateSpeakButtonVisibility();
+                Metrics.record(Metrics.Phase.UI_APPLY, received);
+            });
+        }
     }
 
     // Load languages from JSON file
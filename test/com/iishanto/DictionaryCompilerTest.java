@@ -0,0 +1,33 @@
+package com.iishanto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DictionaryCompilerTest {
+    @Test
+    void skipsOnlyRowsOfColumnNames() {
+        assertTrue(DictionaryCompiler.isHeader(DictionaryCompiler.parseCsvLine("word,meaning")));
+        assertTrue(DictionaryCompiler.isHeader(DictionaryCompiler.parseCsvLine("Headword, Gloss")));
+        assertTrue(DictionaryCompiler.isHeader(DictionaryCompiler.parseCsvLine("EN,BN")));
+        // Entries for the words "word" and "en" are data, not headers
+        assertFalse(DictionaryCompiler.isHeader(DictionaryCompiler.parseCsvLine("word,শব্দ")));
+        assertFalse(DictionaryCompiler.isHeader(DictionaryCompiler.parseCsvLine("en,\"prefix, as in enable\"")));
+        assertFalse(DictionaryCompiler.isHeader(DictionaryCompiler.parseCsvLine("")));
+    }
+
+    @Test
+    void rejectsBadUsageWithoutExiting() {
+        assertThrows(IllegalArgumentException.class, () -> DictionaryCompiler.main(new String[]{"dictionary.bin"}));
+    }
+
+    @Test
+    void parsesQuotedFields() {
+        assertEquals(List.of("a", "b, \"c\""), DictionaryCompiler.parseCsvLine("a,\"b, \"\"c\"\"\""));
+    }
+}
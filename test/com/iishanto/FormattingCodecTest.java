@@ -0,0 +1,58 @@
+package com.iishanto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FormattingCodecTest {
+    // Fragments a paragraph is built from: placeholders and markup written literally, spacing, CR and a surrogate pair
+    private static final String[] FRAGMENTS = {
+            " ", "\t", "\r", "<", ">", "&", "<sp>", "<tr>", "&amp;", "&lt;", "&#39;", "&copy", ";",
+            "a", "word", "বাংলা", "漢字", "😀", "x=1&y=2"};
+
+    /**
+     * What the app does with a paragraph the server echoes back: restore placeholders, then decode entities
+     */
+    private static String roundTrip(String paragraph) {
+        return HtmlEntityDecoder.decode(FormattingCodec.decode(FormattingCodec.encode(paragraph)));
+    }
+
+    @Test
+    void roundTripsRandomParagraphs() {
+        Random random = new Random(20);
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int parts = random.nextInt(12);
+            for (int j = 0; j < parts; j++) {
+                sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            String paragraph = sb.toString();
+            assertEquals(paragraph, roundTrip(paragraph), () -> "round trip of \"" + paragraph + "\"");
+        }
+    }
+
+    @Test
+    void roundTripsEdgeCases() {
+        for (String paragraph : new String[]{"", " ", "\t\t", " \t x \t ", "<sp>", " <tr> ", "a < b && c > d",
+                "line\r", "\r\n", "😀 ", "\t😀"}) {
+            assertEquals(paragraph, roundTrip(paragraph));
+        }
+    }
+
+    @Test
+    void encodesEdgeSpacingAsPlaceholders() {
+        assertEquals("<sp><tr>a &lt;b&gt; &amp; c<sp>", FormattingCodec.encode(" \ta <b> & c "));
+    }
+
+    @Test
+    void recognizesFormattingOnlyParagraphs() {
+        assertTrue(FormattingCodec.isFormattingOnly(FormattingCodec.encode(" \t ")));
+        assertTrue(FormattingCodec.isFormattingOnly(FormattingCodec.encode("")));
+        assertFalse(FormattingCodec.isFormattingOnly(FormattingCodec.encode(" x ")));
+        assertFalse(FormattingCodec.isFormattingOnly(FormattingCodec.encode("<sp>")));
+    }
+}
@@ -0,0 +1,79 @@
+package com.iishanto;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GoogleTranslateClientTest {
+    private final TranslateBatcherTest.FakeSender sender = new TranslateBatcherTest.FakeSender();
+
+    private GoogleTranslateClient client() throws IOException {
+        TranslationStore store = new TranslationStore(
+                Files.createTempDirectory("iidict-client").resolve("translation-cache.bin"), 1024 * 1024);
+        return new GoogleTranslateClient(new TranslateBatcher(sender, 0, 128, 16_000, 4), new TranslationCache(1024 * 1024), store);
+    }
+
+    @Test
+    void sendsAParagraphOnceForConcurrentCallers() throws Exception {
+        GoogleTranslateClient client = client();
+        client.translateAsync("hello", "en", "bn");
+        client.translateAsync("hello\nworld", "en", "bn");
+        assertEquals(List.of("hello"), sender.next().paragraphs());
+        // "hello" is already in flight, so only "world" is sent for the second caller
+        assertEquals(List.of("world"), sender.next().paragraphs());
+        sender.assertNothingSent();
+    }
+
+    @Test
+    void sharesTheTranslationAndCachesIt() throws Exception {
+        GoogleTranslateClient client = client();
+        CompletableFuture<String> first = client.translateAsync("hello", "en", "bn");
+        CompletableFuture<String> second = client.translateAsync("hello", "en", "bn");
+        sender.next().answer();
+        sender.assertNothingSent();
+        assertEquals("HELLO", first.get());
+        assertEquals("HELLO", second.get());
+
+        assertEquals("HELLO", client.translateAsync("hello", "en", "bn").get());
+        sender.assertNothingSent();
+    }
+
+    @Test
+    void fetchesAgainForAWaiterWhenTheOwnerIsCancelled() throws Exception {
+        GoogleTranslateClient client = client();
+        CompletableFuture<String> owner = client.translateAsync("cancelled", "en", "bn");
+        CompletableFuture<String> waiter = client.translateAsync("cancelled", "en", "bn");
+        TranslateBatcherTest.FakeSender.Call call = sender.next();
+        owner.cancel(true);
+        assertTrue(call.exchange().isCancelled());
+
+        TranslateBatcherTest.FakeSender.Call retry = sender.next();
+        assertEquals(List.of("cancelled"), retry.paragraphs());
+        retry.answer();
+        assertEquals("CANCELLED", waiter.get());
+    }
+
+    @Test
+    void retriesAFailedParagraphForTheNextCaller() throws Exception {
+        GoogleTranslateClient client = client();
+        CompletableFuture<String> failed = client.translateAsync("flaky", "en", "bn");
+        sender.next().exchange().completeExceptionally(new IOException("Translation request failed with HTTP 503"));
+        ExecutionException e = assertThrows(ExecutionException.class, failed::get);
+        assertInstanceOf(IOException.class, e.getCause());
+
+        CompletableFuture<String> retried = client.translateAsync("flaky", "en", "bn");
+        TranslateBatcherTest.FakeSender.Call retry = sender.next();
+        assertEquals(List.of("flaky"), retry.paragraphs());
+        retry.answer();
+        assertEquals("FLAKY", retried.get());
+    }
+}
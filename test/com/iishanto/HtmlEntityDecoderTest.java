@@ -0,0 +1,41 @@
+package com.iishanto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class HtmlEntityDecoderTest {
+    @Test
+    void decodesNamedAndNumericReferences() {
+        assertEquals("a & b < c > d \" ' ' ©", HtmlEntityDecoder.decode("a &amp; b &lt; c &gt; d &quot; &apos; &#39; &copy;"));
+        assertEquals("“q” 😀 €", HtmlEntityDecoder.decode("&#8220;q&#x201D; &#x1F600; &#128;"));
+        assertEquals("∄ ⩽̸", HtmlEntityDecoder.decode("&NotExists; &NotLessSlantEqual;"));
+    }
+
+    @Test
+    void decodesLegacyReferencesWithoutSemicolon() {
+        assertEquals("© 2024", HtmlEntityDecoder.decode("&copy 2024"));
+        assertEquals("a & b", HtmlEntityDecoder.decode("a &amp b"));
+        assertEquals("x©", HtmlEntityDecoder.decode("x&copy"));
+    }
+
+    @Test
+    void leavesUrlQueryParametersAlone() {
+        String url = "https://x.com/?id=1&section=2&param=3&copy=4&amp=5&lt=6";
+        assertSame(url, HtmlEntityDecoder.decode(url));
+        assertEquals("https://x.com/?a=1&b=2", HtmlEntityDecoder.decode("https://x.com/?a=1&amp;b=2"));
+    }
+
+    @Test
+    void leavesWordsStartingWithAnEntityNameAlone() {
+        assertEquals("a&notification", HtmlEntityDecoder.decode("a&notification"));
+        assertEquals("price&cent=5", HtmlEntityDecoder.decode("price&cent=5"));
+        assertEquals("AT&T and R&D", HtmlEntityDecoder.decode("AT&T and R&D"));
+    }
+
+    @Test
+    void leavesUnknownAndIncompleteReferencesAlone() {
+        assertEquals("&bogus; &; & &# &#x; &#xZZ;", HtmlEntityDecoder.decode("&bogus; &; & &# &#x; &#xZZ;"));
+    }
+}
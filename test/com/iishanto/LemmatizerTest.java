@@ -0,0 +1,104 @@
+package com.iishanto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LemmatizerTest {
+    private static final Set<String> HEADWORDS = Set.of(
+            "run", "stop", "make", "walk", "city", "leaf", "knife", "box", "church", "hero", "student",
+            "happy", "big", "mouse", "be", "fly", "tie", "dog");
+
+    private static String lemma(String word) {
+        return Lemmatizer.lemma(word, HEADWORDS::contains);
+    }
+
+    @Test
+    void foldsCaseAndSentencePunctuation() {
+        assertEquals("running", Lemmatizer.fold("Running,"));
+        assertEquals("word", Lemmatizer.fold("  \"Word!\" "));
+        assertEquals("end", Lemmatizer.fold("(end)."));
+        assertEquals("wait", Lemmatizer.fold("wait…"));
+        assertEquals("don't", Lemmatizer.fold("“Don’t”"));
+        assertEquals("শব্দ", Lemmatizer.fold("শব্দ,"));
+    }
+
+    @Test
+    void returnsTheSameInstanceWhenNothingChanges() {
+        String word = "already";
+        assertSame(word, Lemmatizer.fold(word));
+    }
+
+    @Test
+    void keepsSymbolsThatArePartOfTheWord() {
+        // Stripping these would answer with the gloss of another word ("c", "a", "include", "5")
+        assertNull(Lemmatizer.fold("C++"));
+        assertNull(Lemmatizer.fold("A+"));
+        assertNull(Lemmatizer.fold("#include"));
+        assertNull(Lemmatizer.fold("-5"));
+        assertNull(Lemmatizer.fold("C#."));
+        assertEquals("e-mail", Lemmatizer.fold("E-mail"));
+        assertEquals("3.14", Lemmatizer.fold("3.14"));
+    }
+
+    @Test
+    void rejectsWhatIsNotOneWord() {
+        assertNull(Lemmatizer.fold(null));
+        assertNull(Lemmatizer.fold(""));
+        assertNull(Lemmatizer.fold("...!"));
+        assertNull(Lemmatizer.fold("two words"));
+        assertNull(Lemmatizer.fold("x".repeat(65)));
+    }
+
+    @Test
+    void reducesRegularInflections() {
+        assertEquals("city", lemma("cities"));
+        assertEquals("leaf", lemma("leaves"));
+        assertEquals("knife", lemma("knives"));
+        assertEquals("box", lemma("boxes"));
+        assertEquals("church", lemma("churches"));
+        assertEquals("hero", lemma("heroes"));
+        assertEquals("dog", lemma("dogs"));
+        assertEquals("student", lemma("student's"));
+        assertEquals("student", lemma(Lemmatizer.fold("students'")));
+        assertEquals("stop", lemma("stopped"));
+        assertEquals("stop", lemma("stopping"));
+        assertEquals("make", lemma("making"));
+        assertEquals("walk", lemma("walked"));
+        assertEquals("happy", lemma("happiest"));
+        assertEquals("happy", lemma("happier"));
+        assertEquals("big", lemma("biggest"));
+    }
+
+    @Test
+    void reducesIrregularForms() {
+        assertEquals("run", lemma("ran"));
+        assertEquals("mouse", lemma("mice"));
+        assertEquals("be", lemma("were"));
+        assertEquals("fly", lemma("flies"));
+        assertEquals("tie", lemma("tying"));
+    }
+
+    @Test
+    void keepsKnownAndUnconfirmedWords() {
+        // A headword is never reduced, and a candidate no headword confirms is not used
+        assertEquals("dog", lemma("dog"));
+        assertEquals("glasses", lemma("glasses"));
+        assertEquals("bus", lemma("bus"));
+        assertEquals("analysis", lemma("analysis"));
+    }
+
+    @Test
+    void ordersCandidatesMostLikelyFirst() {
+        assertEquals(List.of("stop", "stopp"), Lemmatizer.candidates("stopped"));
+        assertEquals(List.of("hope", "hop"), Lemmatizer.candidates("hoped"));
+        assertTrue(Lemmatizer.candidates("বাংলা").isEmpty());
+        assertTrue(Lemmatizer.candidates("go").isEmpty());
+    }
+}
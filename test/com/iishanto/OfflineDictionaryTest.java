@@ -0,0 +1,199 @@
+package com.iishanto;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OfflineDictionaryTest {
+    private static Path compile(Path dir) throws IOException {
+        return compile(dir, "word,meaning\napple,আপেল\nbook,বই\nwater,জল\n");
+    }
+
+    private static Path compile(Path dir, String csvText) throws IOException {
+        Path csv = dir.resolve("words.csv");
+        Files.writeString(csv, csvText, StandardCharsets.UTF_8);
+        Path output = dir.resolve("dictionary.bin");
+        DictionaryCompiler.main(new String[]{output.toString(), csv.toString()});
+        return output;
+    }
+
+    @Test
+    void opensAndLooksUpACompiledDictionary() throws IOException {
+        Path file = compile(Files.createTempDirectory("iidict-test"));
+        OfflineDictionary dictionary = OfflineDictionary.open(file);
+        assertEquals(3, dictionary.size());
+        assertTrue(dictionary.verify());
+        assertEquals("বই", dictionary.lookup("Book"));
+        assertNull(dictionary.lookup("pen"));
+    }
+
+    @Test
+    void rejectsACorruptFile() throws IOException {
+        Path file = compile(Files.createTempDirectory("iidict-test"));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 2] ^= 0x55;
+        Files.write(file, bytes);
+        assertFalse(opens(file));
+    }
+
+    @Test
+    void rejectsATruncatedFile() throws IOException {
+        Path file = compile(Files.createTempDirectory("iidict-test"));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+        assertFalse(opens(file));
+    }
+
+    @Test
+    void installsTheBundledDictionaryOnlyWhenMissingOrDifferent() throws IOException {
+        byte[] bundled = Files.readAllBytes(compile(Files.createTempDirectory("iidict-test")));
+        Path file = Files.createTempDirectory("iidict-data").resolve(OfflineDictionary.FILE_NAME);
+
+        assertTrue(OfflineDictionary.install(new ByteArrayInputStream(bundled), file, true, false));
+        assertFalse(OfflineDictionary.install(new ByteArrayInputStream(bundled), file, true, false));
+
+        // An older copy, as left by a previous release, is replaced
+        Files.write(file, Files.readAllBytes(compile(Files.createTempDirectory("iidict-test"), "apple,আপেল\n")));
+        assertTrue(OfflineDictionary.install(new ByteArrayInputStream(bundled), file, true, false));
+        assertEquals(3, OfflineDictionary.open(file).size());
+    }
+
+    @Test
+    void replacesADamagedCopyButNotAUsersOwnDictionary() throws IOException {
+        byte[] bundled = Files.readAllBytes(compile(Files.createTempDirectory("iidict-test")));
+        Path file = Files.createTempDirectory("iidict-data").resolve(OfflineDictionary.FILE_NAME);
+        byte[] damaged = bundled.clone();
+        damaged[damaged.length - 2] ^= 0x55;
+        Files.write(file, damaged);
+        assertFalse(opens(file));
+        assertTrue(OfflineDictionary.install(new ByteArrayInputStream(bundled), file, true, true));
+        assertTrue(opens(file));
+
+        byte[] own = Files.readAllBytes(compile(Files.createTempDirectory("iidict-test"), "apple,আপেল\n"));
+        Files.write(file, own);
+        assertFalse(OfflineDictionary.install(new ByteArrayInputStream(bundled), file, false, true));
+        assertTrue(Arrays.equals(own, Files.readAllBytes(file)));
+    }
+
+    private static OfflineDictionary open(String... headwords) throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (String headword : headwords) csv.append(headword).append(",gloss of ").append(headword).append('\n');
+        return OfflineDictionary.open(compile(Files.createTempDirectory("iidict-test"), csv.toString()));
+    }
+
+    private static List<String> headwords(List<OfflineDictionary.Suggestion> suggestions) {
+        return suggestions.stream().map(OfflineDictionary.Suggestion::headword).toList();
+    }
+
+    @Test
+    void listsPrefixMatchesInSortedOrderUpToTheLimit() throws IOException {
+        OfflineDictionary dictionary = open("car", "cart", "carbon", "care", "cat", "bar", "carpet");
+        assertEquals(List.of("car", "carbon", "care", "carpet", "cart"), headwords(dictionary.prefix("Car", 10)));
+        assertEquals(List.of("car", "carbon"), headwords(dictionary.prefix("car", 2)));
+        assertEquals("gloss of carbon", dictionary.prefix("carb", 10).get(0).gloss());
+        assertTrue(dictionary.prefix("cz", 10).isEmpty());
+        assertTrue(dictionary.prefix(" ", 10).isEmpty());
+    }
+
+    @Test
+    void findsSingleEditsAtDistanceOne() throws IOException {
+        OfflineDictionary dictionary = open("form", "from", "frog", "for", "forms", "farm", "storm");
+        // Transposition, deletion, insertion and substitution
+        assertEquals(List.of("from", "form"), headwords(dictionary.fuzzy("from", 1, 10)).subList(0, 2));
+        assertTrue(headwords(dictionary.fuzzy("form", 1, 10)).containsAll(List.of("form", "from", "forms", "farm", "for")));
+        assertFalse(headwords(dictionary.fuzzy("form", 1, 10)).contains("storm"));
+        assertFalse(headwords(dictionary.fuzzy("form", 1, 10)).contains("frog"));
+        assertEquals(List.of(new OfflineDictionary.Suggestion("form", "gloss of form", 0)), dictionary.fuzzy("form", 0, 10));
+        assertEquals(1, dictionary.fuzzy("fomr", 1, 10).get(0).distance());
+    }
+
+    @Test
+    void findsDoubleEditsAtDistanceTwo() throws IOException {
+        OfflineDictionary dictionary = open("receive", "recipe", "deceive", "relieve", "achieve");
+        List<OfflineDictionary.Suggestion> one = dictionary.fuzzy("recieve", 1, 10);
+        // Transposition "ie" and substitution "c" -> "l", equally close
+        assertEquals(List.of("receive", "relieve"), headwords(one));
+        List<OfflineDictionary.Suggestion> two = dictionary.fuzzy("recieve", 2, 10);
+        assertEquals("receive", two.get(0).headword());
+        assertTrue(headwords(two).contains("deceive"));
+        assertFalse(headwords(two).contains("achieve"));
+        // A deletion, and two insertions
+        assertTrue(dictionary.fuzzy("recive", 2, 10).contains(new OfflineDictionary.Suggestion("receive", "gloss of receive", 1)));
+        assertEquals(2, dictionary.fuzzy("rreceivee", 2, 10).get(0).distance());
+        assertEquals(1, dictionary.fuzzy("recieve", 2, 1).size());
+    }
+
+    @Test
+    void agreesWithBruteForceEditDistance() throws IOException {
+        // A small alphabet makes many headwords lie within one or two edits of each other
+        Random random = new Random(11);
+        Set<String> words = new TreeSet<>();
+        while (words.size() < 3000) words.add(randomWord(random));
+        OfflineDictionary dictionary = open(words.toArray(new String[0]));
+        for (int q = 0; q < 300; q++) {
+            String query = randomWord(random);
+            for (int k = 1; k <= 2; k++) {
+                Map<String, Integer> expected = new TreeMap<>();
+                for (String word : words) {
+                    int distance = osaDistance(query, word);
+                    if (distance <= k) expected.put(word, distance);
+                }
+                Map<String, Integer> actual = new TreeMap<>();
+                for (OfflineDictionary.Suggestion s : dictionary.fuzzy(query, k, Integer.MAX_VALUE)) {
+                    actual.put(s.headword(), s.distance());
+                }
+                assertEquals(expected, actual, "query " + query + ", k=" + k);
+            }
+        }
+    }
+
+    private static String randomWord(Random random) {
+        char[] chars = new char[1 + random.nextInt(7)];
+        for (int i = 0; i < chars.length; i++) chars[i] = (char) ('a' + random.nextInt(5));
+        return new String(chars);
+    }
+
+    /**
+     * Optimal string alignment distance: insertions, deletions, substitutions and adjacent transpositions
+     */
+    private static int osaDistance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static boolean opens(Path file) {
+        try {
+            OfflineDictionary.open(file);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
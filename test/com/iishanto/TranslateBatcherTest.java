@@ -0,0 +1,186 @@
+package com.iishanto;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranslateBatcherTest {
+    /**
+     * Records every batch instead of sending it; the test answers and completes each exchange itself
+     */
+    static final class FakeSender implements TranslateBatcher.Sender {
+        record Call(List<String> paragraphs, String sl, String tl, BiConsumer<Integer, String> onParagraph,
+                    CompletableFuture<Void> exchange) {
+            /**
+             * Translate every paragraph to upper case and finish the exchange
+             */
+            void answer() {
+                for (int i = 0; i < paragraphs.size(); i++) onParagraph.accept(i, paragraphs.get(i).toUpperCase());
+                exchange.complete(null);
+            }
+        }
+
+        private final BlockingQueue<Call> calls = new LinkedBlockingQueue<>();
+
+        @Override
+        public CompletableFuture<Void> send(List<String> paragraphs, String sl, String tl, BiConsumer<Integer, String> onParagraph) {
+            Call call = new Call(List.copyOf(paragraphs), sl, tl, onParagraph, new CompletableFuture<>());
+            calls.add(call);
+            return call.exchange();
+        }
+
+        Call next() throws InterruptedException {
+            Call call = calls.poll(5, TimeUnit.SECONDS);
+            assertNotNull(call, "no batch was sent");
+            return call;
+        }
+
+        void assertNothingSent() throws InterruptedException {
+            Call call = calls.poll(100, TimeUnit.MILLISECONDS);
+            assertNull(call, () -> "unexpected batch " + call.paragraphs());
+        }
+    }
+
+    private final FakeSender sender = new FakeSender();
+
+    private static List<CompletableFuture<String>> futures(int n) {
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < n; i++) futures.add(new CompletableFuture<>());
+        return futures;
+    }
+
+    private static List<String> join(List<CompletableFuture<String>> futures) {
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    @Test
+    void coalescesSubmissionsWithinTheWindowPerLanguagePair() throws Exception {
+        TranslateBatcher batcher = new TranslateBatcher(sender, 200, 100, 10_000, 4);
+        List<CompletableFuture<String>> first = futures(1);
+        List<CompletableFuture<String>> second = futures(2);
+        List<CompletableFuture<String>> other = futures(1);
+        batcher.submit("en", "bn", List.of("a"), first);
+        batcher.submit("en", "bn", List.of("b", "c"), second);
+        batcher.submit("en", "hi", List.of("d"), other);
+
+        Map<String, FakeSender.Call> byTarget = new HashMap<>();
+        for (int i = 0; i < 2; i++) {
+            FakeSender.Call call = sender.next();
+            byTarget.put(call.tl(), call);
+        }
+        sender.assertNothingSent();
+        assertEquals(List.of("a", "b", "c"), byTarget.get("bn").paragraphs());
+        assertEquals(List.of("d"), byTarget.get("hi").paragraphs());
+        byTarget.values().forEach(FakeSender.Call::answer);
+        assertEquals(List.of("A"), join(first));
+        assertEquals(List.of("B", "C"), join(second));
+        assertEquals(List.of("D"), join(other));
+    }
+
+    @Test
+    void splitsAtMaxParagraphs() throws Exception {
+        TranslateBatcher batcher = new TranslateBatcher(sender, 0, 2, 10_000, 4);
+        batcher.submit("en", "bn", List.of("a", "b", "c", "d", "e"), futures(5));
+        assertEquals(List.of("a", "b"), sender.next().paragraphs());
+        assertEquals(List.of("c", "d"), sender.next().paragraphs());
+        assertEquals(List.of("e"), sender.next().paragraphs());
+        sender.assertNothingSent();
+    }
+
+    @Test
+    void splitsAtMaxChars() throws Exception {
+        TranslateBatcher batcher = new TranslateBatcher(sender, 0, 100, 10, 4);
+        // A paragraph longer than the limit still goes out, alone
+        batcher.submit("en", "bn", List.of("aaaa", "bbbb", "cccc", "dddddddddddd"), futures(4));
+        assertEquals(List.of("aaaa", "bbbb"), sender.next().paragraphs());
+        assertEquals(List.of("cccc"), sender.next().paragraphs());
+        assertEquals(List.of("dddddddddddd"), sender.next().paragraphs());
+        sender.assertNothingSent();
+    }
+
+    @Test
+    void limitsConcurrentRequestsAndSendsWaitingBatchesInOrder() throws Exception {
+        TranslateBatcher batcher = new TranslateBatcher(sender, 0, 1, 10_000, 2);
+        List<CompletableFuture<String>> results = futures(4);
+        batcher.submit("en", "bn", List.of("a", "b", "c", "d"), results);
+        FakeSender.Call a = sender.next();
+        FakeSender.Call b = sender.next();
+        assertEquals(List.of("a"), a.paragraphs());
+        assertEquals(List.of("b"), b.paragraphs());
+        sender.assertNothingSent();
+
+        b.answer();
+        FakeSender.Call c = sender.next();
+        assertEquals(List.of("c"), c.paragraphs());
+        sender.assertNothingSent();
+        a.answer();
+        FakeSender.Call d = sender.next();
+        assertEquals(List.of("d"), d.paragraphs());
+        c.answer();
+        d.answer();
+        assertEquals(List.of("A", "B", "C", "D"), join(results));
+    }
+
+    @Test
+    void dropsParagraphsCancelledWhileWaiting() throws Exception {
+        TranslateBatcher batcher = new TranslateBatcher(sender, 0, 1, 10_000, 1);
+        List<CompletableFuture<String>> results = futures(2);
+        batcher.submit("en", "bn", List.of("a", "b"), results);
+        FakeSender.Call a = sender.next();
+        results.get(1).cancel(true);
+        a.answer();
+        sender.assertNothingSent();
+
+        // The slot was released, so the next batch is sent at once
+        batcher.submit("en", "bn", List.of("c"), futures(1));
+        assertEquals(List.of("c"), sender.next().paragraphs());
+    }
+
+    @Test
+    void abortsARequestOnlyWhenEveryCallerIsGone() throws Exception {
+        TranslateBatcher batcher = new TranslateBatcher(sender, 0, 100, 10_000, 4);
+        List<CompletableFuture<String>> results = futures(2);
+        batcher.submit("en", "bn", List.of("a", "b"), results);
+        FakeSender.Call call = sender.next();
+        results.get(0).cancel(true);
+        assertFalse(call.exchange().isCancelled());
+        results.get(1).cancel(true);
+        assertTrue(call.exchange().isCancelled());
+    }
+
+    @Test
+    void completesUncoveredParagraphsWithNullAndFailsThemWithTheExchange() throws Exception {
+        TranslateBatcher batcher = new TranslateBatcher(sender, 0, 100, 10_000, 4);
+        List<CompletableFuture<String>> shortResponse = futures(2);
+        batcher.submit("en", "bn", List.of("a", "b"), shortResponse);
+        FakeSender.Call call = sender.next();
+        call.onParagraph().accept(0, "A");
+        call.exchange().complete(null);
+        assertEquals("A", shortResponse.get(0).join());
+        assertNull(shortResponse.get(1).join());
+
+        List<CompletableFuture<String>> failed = futures(1);
+        batcher.submit("en", "bn", List.of("c"), failed);
+        sender.next().exchange().completeExceptionally(new IOException("Translation request failed with HTTP 503"));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(0).get());
+        assertInstanceOf(IOException.class, e.getCause());
+    }
+}
@@ -0,0 +1,86 @@
+package com.iishanto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranslationCacheTest {
+    private static final String VALUE = "v".repeat(100);
+
+    /**
+     * Paragraphs whose keys fall into the same segment, so they compete for one share of the budget
+     */
+    private static List<String> sameSegment(int n) {
+        List<String> paragraphs = new ArrayList<>();
+        int segment = TranslationCache.segmentIndex(TranslationCache.key("en", "bn", "p0"));
+        for (int i = 0; paragraphs.size() < n; i++) {
+            if (TranslationCache.segmentIndex(TranslationCache.key("en", "bn", "p" + i)) == segment) paragraphs.add("p" + i);
+        }
+        return paragraphs;
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        TranslationCache cache = new TranslationCache(1024 * 1024);
+        cache.put("en", "bn", "hello", "হ্যালো");
+        assertEquals("হ্যালো", cache.get("en", "bn", "hello"));
+        assertEquals("হ্যালো", cache.get("en", "bn", "hello"));
+        assertNull(cache.get("en", "hi", "hello"));
+        TranslationCache.Stats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0, stats.evictions());
+        assertEquals(1, stats.size());
+        assertEquals(2.0 / 3, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntryByWeight() {
+        List<String> p = sameSegment(4);
+        long entry = TranslationCache.weigh(TranslationCache.key("en", "bn", p.get(0)), VALUE);
+        // Each of the 16 segments has room for three entries
+        TranslationCache cache = new TranslationCache(16 * (3 * entry + entry / 2));
+        for (int i = 0; i < 3; i++) cache.put("en", "bn", p.get(i), VALUE);
+        // Touch the oldest, so the second one is evicted instead
+        cache.get("en", "bn", p.get(0));
+        cache.put("en", "bn", p.get(3), VALUE);
+
+        assertEquals(1, cache.getEvictions());
+        assertEquals(3, cache.getSize());
+        assertNull(cache.get("en", "bn", p.get(1)));
+        assertEquals(VALUE, cache.get("en", "bn", p.get(0)));
+        assertEquals(VALUE, cache.get("en", "bn", p.get(3)));
+        assertTrue(cache.getWeightBytes() <= cache.getMaxWeightBytes() / 16);
+    }
+
+    @Test
+    void evictsAsManyEntriesAsALargeOneNeeds() {
+        List<String> p = sameSegment(3);
+        long entry = TranslationCache.weigh(TranslationCache.key("en", "bn", p.get(0)), VALUE);
+        TranslationCache cache = new TranslationCache(16 * (3 * entry));
+        cache.put("en", "bn", p.get(0), VALUE);
+        cache.put("en", "bn", p.get(1), VALUE);
+        cache.put("en", "bn", p.get(2), VALUE.repeat(3));
+        assertEquals(2, cache.getEvictions());
+        assertEquals(1, cache.getSize());
+        // An entry larger than a whole segment is not cached at all
+        cache.put("en", "bn", "huge", VALUE.repeat(100));
+        assertNull(cache.get("en", "bn", "huge"));
+    }
+
+    @Test
+    void clearsEntriesButKeepsCounters() {
+        TranslationCache cache = new TranslationCache(1024 * 1024);
+        cache.put("en", "bn", "hello", "হ্যালো");
+        cache.get("en", "bn", "hello");
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getWeightBytes());
+        assertEquals(1, cache.getHits());
+    }
+}
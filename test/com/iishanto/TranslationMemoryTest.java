@@ -0,0 +1,63 @@
+package com.iishanto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranslationMemoryTest {
+    private static final String SOURCE = "The build finished in 42 seconds with 3 warnings and no errors.";
+
+    private static TranslationMemory memory(int maxEntries) {
+        TranslationMemory memory = new TranslationMemory(maxEntries, 4_000, 0.75);
+        memory.put(SOURCE, "en", "bn", "translation");
+        return memory;
+    }
+
+    @Test
+    void findsANearDuplicate() {
+        TranslationMemory.Match match = memory(10).closest("The build finished in 47 seconds with 3 warnings and no errors.", "en", "bn");
+        assertNotNull(match);
+        assertEquals("translation", match.translation());
+        assertTrue(match.similarity() >= 0.75 && match.similarity() < 1, "similarity " + match.similarity());
+    }
+
+    @Test
+    void ignoresCaseAndSpacing() {
+        TranslationMemory.Match match = memory(10).closest("  the BUILD finished in 42 seconds\twith 3 warnings and no errors. ", "en", "bn");
+        assertNotNull(match);
+        assertEquals(1.0, match.similarity());
+    }
+
+    @Test
+    void doesNotMatchAnUnrelatedSentence() {
+        assertNull(memory(10).closest("Please restart your computer to complete the installation.", "en", "bn"));
+    }
+
+    @Test
+    void doesNotMatchAnotherLanguagePair() {
+        TranslationMemory memory = memory(10);
+        assertNull(memory.closest(SOURCE, "en", "hi"));
+        assertNull(memory.closest(SOURCE, "fr", "bn"));
+    }
+
+    @Test
+    void forgetsTheOldestEntryWhenFull() {
+        TranslationMemory memory = memory(2);
+        memory.put("A completely different sentence about the weather today.", "en", "bn", "weather");
+        memory.put("Yet another sentence, this one about trains and stations.", "en", "bn", "trains");
+        assertEquals(2, memory.size());
+        assertNull(memory.closest(SOURCE, "en", "bn"));
+        assertEquals("trains", memory.closest("Yet another sentence, this one about trains and stations!", "en", "bn").translation());
+    }
+
+    @Test
+    void replacesTheTranslationOfTheSameSource() {
+        TranslationMemory memory = memory(10);
+        memory.put(SOURCE, "en", "bn", "corrected");
+        assertEquals(1, memory.size());
+        assertEquals("corrected", memory.closest(SOURCE, "en", "bn").translation());
+    }
+}
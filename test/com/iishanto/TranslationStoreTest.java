@@ -0,0 +1,117 @@
+package com.iishanto;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TranslationStoreTest {
+    private static final long MAX_BYTES = 16L * 1024 * 1024;
+
+    private static Path file() throws IOException {
+        return Files.createTempDirectory("iidict-store").resolve("translation-cache.bin");
+    }
+
+    @Test
+    void keepsTranslationsAcrossReopening() throws IOException {
+        Path file = file();
+        TranslationStore store = new TranslationStore(file, MAX_BYTES);
+        store.put("en", "bn", "hello", "হ্যালো");
+        store.put("en", "bn", "world", "বিশ্ব");
+        store.put("en", "hi", "hello", "नमस्ते");
+        // Appended after the file was mapped, so read back from the channel
+        assertEquals("বিশ্ব", store.get("en", "bn", "world"));
+        store.close();
+
+        store = new TranslationStore(file, MAX_BYTES);
+        assertEquals(3, store.size());
+        assertEquals("হ্যালো", store.get("en", "bn", "hello"));
+        assertEquals("नमस्ते", store.get("en", "hi", "hello"));
+        assertNull(store.get("en", "bn", "hell"));
+        assertNull(store.get("fr", "bn", "hello"));
+        store.close();
+    }
+
+    @Test
+    void keepsTheFirstTranslationOfAParagraph() throws IOException {
+        TranslationStore store = new TranslationStore(file(), MAX_BYTES);
+        store.put("en", "bn", "hello", "first");
+        store.put("en", "bn", "hello", "second");
+        assertEquals(1, store.size());
+        assertEquals("first", store.get("en", "bn", "hello"));
+        store.close();
+    }
+
+    @Test
+    void findsEntriesBeforeAndAfterRemapping() throws IOException {
+        Path file = file();
+        TranslationStore store = new TranslationStore(file, MAX_BYTES);
+        String padding = "x".repeat(1000);
+        for (int i = 0; i < 3000; i++) {
+            store.put("en", "bn", "paragraph " + i, i + padding);
+            if (i % 500 == 0) assertEquals(i + padding, store.get("en", "bn", "paragraph " + i));
+        }
+        assertEquals(3000, store.size());
+        for (int i = 0; i < 3000; i += 7) {
+            assertEquals(i + padding, store.get("en", "bn", "paragraph " + i));
+        }
+        store.close();
+    }
+
+    @Test
+    void dropsATornRecordAndAppendsOverIt() throws IOException {
+        Path file = file();
+        TranslationStore store = new TranslationStore(file, MAX_BYTES);
+        store.put("en", "bn", "kept", "রাখা");
+        store.put("en", "bn", "torn", "a translation cut off by a crash");
+        store.close();
+        // Cut the last record in the middle of its value, as a crash during the write would
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 4 - 10);
+        }
+
+        store = new TranslationStore(file, MAX_BYTES);
+        assertEquals(1, store.size());
+        assertEquals("রাখা", store.get("en", "bn", "kept"));
+        assertNull(store.get("en", "bn", "torn"));
+        // A shorter record over the torn one leaves stale bytes behind it, which must not be read as records
+        store.put("en", "bn", "new", "নতুন");
+        store.close();
+
+        for (int i = 0; i < 2; i++) {
+            store = new TranslationStore(file, MAX_BYTES);
+            assertEquals(2, store.size());
+            assertEquals("রাখা", store.get("en", "bn", "kept"));
+            assertEquals("নতুন", store.get("en", "bn", "new"));
+            store.close();
+        }
+    }
+
+    @Test
+    void stopsPersistingAtTheSizeLimit() throws IOException {
+        TranslationStore store = new TranslationStore(file(), 200);
+        store.put("en", "bn", "one", "x".repeat(100));
+        store.put("en", "bn", "two", "y".repeat(100));
+        assertEquals(1, store.size());
+        assertNull(store.get("en", "bn", "two"));
+        store.close();
+    }
+
+    @Test
+    void discardsAFileWithAnotherHeader() throws IOException {
+        Path file = file();
+        Files.writeString(file, "not a translation store", StandardCharsets.UTF_8);
+        TranslationStore store = new TranslationStore(file, MAX_BYTES);
+        assertEquals(0, store.size());
+        store.put("en", "bn", "hello", "হ্যালো");
+        assertEquals("হ্যালো", store.get("en", "bn", "hello"));
+        store.close();
+    }
+}